@@ -17,6 +17,7 @@ import com.velocitypowered.api.command.CommandManager;
 import com.velocitypowered.api.command.CommandMeta;
 import com.velocitypowered.api.event.Subscribe;
 import com.velocitypowered.api.event.proxy.ProxyInitializeEvent;
+import com.velocitypowered.api.event.proxy.ProxyShutdownEvent;
 import com.velocitypowered.api.plugin.Plugin;
 import com.velocitypowered.api.plugin.annotation.DataDirectory;
 import com.velocitypowered.api.proxy.ProxyServer;
@@ -87,7 +88,7 @@ public final class ReportSystem {
 
         CommandManager cm = proxy.getCommandManager();
         CommandMeta reportMeta = cm.metaBuilder("report").build();
-        this.reportCommand = new ReportCommand(this, reportManager, chatLogService, config);
+        this.reportCommand = new ReportCommand(this, reportManager, config);
         this.reportMenuService = new ReportMenuService(this, reportManager, reportCommand, config);
         this.reportCommand.setMenuService(reportMenuService);
         cm.register(reportMeta, reportCommand);
@@ -104,6 +105,19 @@ public final class ReportSystem {
         logger.info("ReportSystem enabled.");
     }
 
+    @Subscribe
+    public void onShutdown(ProxyShutdownEvent e) {
+        if (webServer != null) {
+            webServer.stop();
+        }
+        if (chatLogService != null) {
+            chatLogService.shutdown();
+        }
+        if (reportManager != null) {
+            reportManager.shutdown();
+        }
+    }
+
     /** /reports reload */
     public void reload() {
         try {
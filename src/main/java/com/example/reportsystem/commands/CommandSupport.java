@@ -0,0 +1,50 @@
+package com.example.reportsystem.commands;
+
+import com.example.reportsystem.config.PluginConfig;
+import com.example.reportsystem.model.Report;
+import com.example.reportsystem.service.ReportManager;
+import com.example.reportsystem.util.Text;
+import com.velocitypowered.api.command.CommandSource;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Helpers shared by the report commands for working with {@link ReportManager}'s asynchronous
+ * API: the command thread never waits on storage, and failures are reported to the sender.
+ */
+final class CommandSupport {
+
+    private CommandSupport() {}
+
+    /** Saves finish in the background; tell the sender if the one behind their action fails. */
+    static void warnIfNotSaved(PluginConfig config, CommandSource src, long id, CompletableFuture<Void> saved) {
+        saved.exceptionally(e -> {
+            Text.msg(src, config.msg("save-failed", "<red>Report #%id% could not be saved: %error%</red>")
+                    .replace("%id%", String.valueOf(id))
+                    .replace("%error%", Text.escape(String.valueOf(cause(e).getMessage()))));
+            return null;
+        });
+    }
+
+    /**
+     * Hand report {@code id} (or null if there is none) to {@code then}: right away when it is in
+     * memory, on the storage I/O thread once it has been loaded otherwise.
+     */
+    static void withReport(ReportManager mgr, CommandSource src, long id, Consumer<Report> then) {
+        replyWhenDone(src, mgr.getAsync(id), then);
+    }
+
+    /** Hand the result of a storage read to {@code then} once it completes; failures go to the sender. */
+    static <T> void replyWhenDone(CommandSource src, CompletableFuture<T> result, Consumer<T> then) {
+        result.thenAccept(then).exceptionally(e -> {
+            Text.msg(src, "<red>Command failed:</red> <gray>" + Text.escape(String.valueOf(cause(e).getMessage())) + "</gray>");
+            return null;
+        });
+    }
+
+    private static Throwable cause(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.reportsystem.commands;
+
+import com.example.reportsystem.service.ReportPage;
+import com.velocitypowered.api.command.CommandSource;
+import com.velocitypowered.api.proxy.Player;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers, per viewer, where the page they last looked at ended, so clicking "Next »" resumes
+ * from that cursor instead of selecting every earlier page again. Any other page (or a different
+ * filter) falls back to the offset query.
+ */
+final class PageCursors {
+
+    private record Last(String view, int page, ReportPage.Cursor next) {}
+
+    private final ConcurrentHashMap<Object, Last> last = new ConcurrentHashMap<>();
+
+    /** Cursor to start {@code page} of {@code view} from, or null to use the page offset. */
+    ReportPage.Cursor before(CommandSource src, String view, int page) {
+        Last l = last.get(key(src));
+        if (l == null || l.next() == null || l.page() + 1 != page || !Objects.equals(l.view(), view)) return null;
+        return l.next();
+    }
+
+    void remember(CommandSource src, String view, int page, ReportPage.Cursor next) {
+        last.put(key(src), new Last(view, page, next));
+    }
+
+    private static Object key(CommandSource src) {
+        return src instanceof Player p ? p.getUniqueId() : "console";
+    }
+}
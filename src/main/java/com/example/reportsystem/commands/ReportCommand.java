@@ -4,7 +4,6 @@ import com.example.reportsystem.ReportSystem;
 import com.example.reportsystem.config.PluginConfig;
 import com.example.reportsystem.model.Report;
 import com.example.reportsystem.model.ReportType;
-import com.example.reportsystem.service.ChatLogService;
 import com.example.reportsystem.service.ReportManager;
 import com.example.reportsystem.service.ReportMenuService;
 import com.example.reportsystem.util.Text;
@@ -34,15 +33,13 @@ public class ReportCommand implements SimpleCommand {
 
     private final ReportSystem plugin;
     private final ReportManager mgr;
-    private final ChatLogService chat;
     private PluginConfig config;
     private final ConcurrentMap<UUID, Long> lastReportAt = new ConcurrentHashMap<>();
     private ReportMenuService menuService;
 
-    public ReportCommand(ReportSystem plugin, ReportManager mgr, ChatLogService chat, PluginConfig config) {
+    public ReportCommand(ReportSystem plugin, ReportManager mgr, PluginConfig config) {
         this.plugin = plugin;
         this.mgr = mgr;
-        this.chat = chat;
         this.config = config;
     }
 
@@ -207,7 +204,7 @@ public class ReportCommand implements SimpleCommand {
             lastReportAt.put(playerSource.getUniqueId(), System.currentTimeMillis());
         }
 
-        chat.refreshWatchList();
+        CommandSupport.warnIfNotSaved(config, src, r.id, mgr.whenPersisted(r.id));
 
         if (r.count > 1) {
             Text.msg(src, config.msg("report-stacked", "Report stacked into #%id% (now x%count%)")
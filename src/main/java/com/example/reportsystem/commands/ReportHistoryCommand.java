@@ -2,10 +2,12 @@ package com.example.reportsystem.commands;
 
 import com.example.reportsystem.ReportSystem;
 import com.example.reportsystem.config.PluginConfig;
+import com.example.reportsystem.model.ChatMessage;
 import com.example.reportsystem.model.Report;
+import com.example.reportsystem.model.ReportSnapshot;
 import com.example.reportsystem.service.HtmlExporter;
 import com.example.reportsystem.service.ReportManager;
-import com.example.reportsystem.util.Pagination;
+import com.example.reportsystem.service.ReportPage;
 import com.example.reportsystem.util.Text;
 import com.example.reportsystem.util.TimeUtil;
 import com.velocitypowered.api.command.CommandSource;
@@ -34,6 +36,7 @@ public class ReportHistoryCommand implements SimpleCommand {
 
     private final ReportSystem plugin;
     private final ReportManager mgr;
+    private final PageCursors cursors = new PageCursors();
     private PluginConfig config;
 
     public ReportHistoryCommand(ReportSystem plugin, ReportManager mgr, PluginConfig config) {
@@ -69,67 +72,76 @@ public class ReportHistoryCommand implements SimpleCommand {
             case "view" -> {
                 if (args.length < 2) { Text.msg(src, "<yellow>Usage:</yellow> /reporthistory view <id>"); return; }
                 long id = parseLong(args[1], -1);
-                Report r = mgr.get(id);
-                if (r == null || r.isOpen()) {
-                    Text.msg(src, config.msg("not-found","No such report: #%id%").replace("%id%", args[1]));
-                    return;
-                }
-                expandClosed(src, r);
+                CommandSupport.withReport(mgr, src, id, r -> {
+                    if (r == null || r.isOpen()) {
+                        Text.msg(src, config.msg("not-found","No such report: #%id%").replace("%id%", args[1]));
+                        return;
+                    }
+                    expandClosed(src, r);
+                });
             }
 
             case "chat" -> {
                 if (args.length < 2) { Text.msg(src, "<yellow>Usage:</yellow> /reporthistory chat <id> [page]"); return; }
                 long id = parseLong(args[1], -1);
-                Report r = mgr.get(id);
-                if (r == null || r.chat == null || r.chat.isEmpty()) {
-                    Text.msg(src, config.msg("chatlog-none","No chat messages were captured for this report."));
-                    return;
-                }
+                CommandSupport.withReport(mgr, src, id, r -> {
+                    if (r == null || r.snapshot().chat().isEmpty()) {
+                        Text.msg(src, config.msg("chatlog-none","No chat messages were captured for this report."));
+                        return;
+                    }
 
-                boolean webEnabled = config.httpServer != null && config.httpServer.enabled;
-                if (webEnabled) {
-                    try {
-                        new HtmlExporter(plugin, config).export(r);
-                        String link = buildPublicLinkFor(r);
-                        if (link == null || link.isBlank()) {
-                            Text.msg(src, "<red>Web viewer is enabled but external/public base URL is not configured.</red>");
-                            return;
+                    boolean webEnabled = config.httpServer != null && config.httpServer.enabled;
+                    if (webEnabled) {
+                        ReportSnapshot snap = r.snapshot();
+                        mgr.chatLinesAsync(snap).thenAccept(lines -> {
+                            try {
+                                new HtmlExporter(plugin, config).export(snap, lines);
+                                String link = buildPublicLinkFor(r);
+                                if (link == null || link.isBlank()) {
+                                    Text.msg(src, "<red>Web viewer is enabled but external/public base URL is not configured.</red>");
+                                    return;
+                                }
+                                String tip = config.msg("tip-open-browser", "Open in browser");
+                                Text.msg(src, "<gray>[</gray><aqua><hover:show_text:'"+Text.escape(tip)+"'><click:open_url:'" + link + "'>"+config.msg("open-chatlog-label","Open chat log")+"</click></hover></aqua><gray>]</gray>");
+                            } catch (Exception ex) {
+                                Text.msg(src, "<red>Failed to export HTML chat log:</red> <gray>"+Text.escape(ex.getMessage())+"</gray>");
+                            }
+                        });
+                    } else {
+                        int page = 1;
+                        if (args.length >= 3) {
+                            try { page = Math.max(1, Integer.parseInt(args[2])); } catch (Exception ignored) {}
                         }
-                        String tip = config.msg("tip-open-browser", "Open in browser");
-                        Text.msg(src, "<gray>[</gray><aqua><hover:show_text:'"+Text.escape(tip)+"'><click:open_url:'" + link + "'>"+config.msg("open-chatlog-label","Open chat log")+"</click></hover></aqua><gray>]</gray>");
-                    } catch (Exception ex) {
-                        Text.msg(src, "<red>Failed to export HTML chat log:</red> <gray>"+Text.escape(ex.getMessage())+"</gray>");
-                    }
-                } else {
-                    int page = 1;
-                    if (args.length >= 3) {
-                        try { page = Math.max(1, Integer.parseInt(args[2])); } catch (Exception ignored) {}
+                        showChatPage(src, r, page);
                     }
-                    showChatPage(src, r, page);
-                }
+                });
             }
 
             case "reopen" -> {
                 if (args.length < 2) { Text.msg(src, "<yellow>Usage:</yellow> /reporthistory reopen <id>"); return; }
                 long id = parseLong(args[1], -1);
-                Report r = mgr.get(id);
-                if (r == null) {
-                    Text.msg(src, config.msg("not-found","No such report: #%id%").replace("%id%", args[1]));
-                    return;
-                }
-                if (r.isOpen()) {
-                    Text.msg(src, config.msg("already-open","Report #%id% is already open.").replace("%id%", String.valueOf(id)));
-                    return;
-                }
-                if (mgr.reopen(id)) {
-                    Text.msg(src, config.msg("reopened","Reopened report #%id%").replace("%id%", String.valueOf(id)));
-                    try {
-                        Object n = plugin.notifier();
-                        if (n != null) n.getClass().getMethod("notifyReopened", Report.class).invoke(n, r);
-                    } catch (Throwable ignored) {}
-                } else {
-                    Text.msg(src, "<red>Failed to reopen report.</red>");
-                }
+                CommandSupport.withReport(mgr, src, id, r -> {
+                    if (r == null) {
+                        Text.msg(src, config.msg("not-found","No such report: #%id%").replace("%id%", args[1]));
+                        return;
+                    }
+                    if (r.isOpen()) {
+                        Text.msg(src, config.msg("already-open","Report #%id% is already open.").replace("%id%", String.valueOf(id)));
+                        return;
+                    }
+                    CommandSupport.replyWhenDone(src, mgr.reopenAsync(id), reopened -> {
+                        if (!reopened) {
+                            Text.msg(src, "<red>Failed to reopen report.</red>");
+                            return;
+                        }
+                        Text.msg(src, config.msg("reopened","Reopened report #%id%").replace("%id%", String.valueOf(id)));
+                        CommandSupport.warnIfNotSaved(config, src, id, mgr.whenPersisted(id));
+                        try {
+                            Object n = plugin.notifier();
+                            if (n != null) n.getClass().getMethod("notifyReopened", Report.class).invoke(n, r);
+                        } catch (Throwable ignored) {}
+                    });
+                });
             }
 
             default -> showPage(src, 1);
@@ -164,11 +176,11 @@ public class ReportHistoryCommand implements SimpleCommand {
     /* ------------------------- UI ------------------------- */
 
     private void showPage(CommandSource src, int page) {
-        List<Report> closed = mgr.getClosedReportsDescending();
-        if (closed.isEmpty()) { Text.msg(src, config.msg("history-page-empty","No closed reports.")); return; }
+        int total = mgr.countClosedReports();
+        if (total == 0) { Text.msg(src, config.msg("history-page-empty","No closed reports.")); return; }
 
         int per = Math.max(1, config.reportsPerPage);
-        int pages = Math.max(1, (int) Math.ceil(closed.size() / (double) per));
+        int pages = Math.max(1, (int) Math.ceil(total / (double) per));
         page = Math.min(Math.max(1, page), pages);
 
         Text.msg(src, config.msg("history-page-header","Closed Reports Page %page%/%pages%")
@@ -177,18 +189,23 @@ public class ReportHistoryCommand implements SimpleCommand {
 
         String tipExpand = config.msg("tip-expand", "Click to expand");
 
-        for (Report r : Pagination.paginate(closed, per, page)) {
-            String line = fmtListLineClosed(r)
-                    + "  <gray>[</gray><aqua><hover:show_text:'"+Text.escape(tipExpand)+"'><click:run_command:'/reporthistory view "+r.id+"'>"+expandLabel()+"</click></hover></aqua><gray>]</gray>";
-            Text.msg(src, line);
-        }
+        // "Next »" resumes from where this viewer's previous page ended; rows not in memory load off-thread
+        int shown = page;
+        CommandSupport.replyWhenDone(src, mgr.getClosedReportsPageAsync(page, per, cursors.before(src, "closed", page)), result -> {
+            cursors.remember(src, "closed", shown, result.next());
+            for (Report r : result.rows()) {
+                String line = fmtListLineClosed(r)
+                        + "  <gray>[</gray><aqua><hover:show_text:'"+Text.escape(tipExpand)+"'><click:run_command:'/reporthistory view "+r.id+"'>"+expandLabel()+"</click></hover></aqua><gray>]</gray>";
+                Text.msg(src, line);
+            }
 
-        String prevTip = config.msg("tip-prev", "Previous page");
-        String nextTip = config.msg("tip-next", "Next page");
-        Text.msg(src,
-                "<gray>[</gray><aqua><hover:show_text:'"+Text.escape(prevTip)+"'><click:run_command:'/reporthistory page "+Math.max(1, page-1)+"'>« Prev</click></hover></aqua><gray>] " +
-                "[</gray><aqua><hover:show_text:'"+Text.escape(nextTip)+"'><click:run_command:'/reporthistory page "+Math.min(pages, page+1)+"'>Next »</click></hover></aqua><gray>]</gray>"
-        );
+            String prevTip = config.msg("tip-prev", "Previous page");
+            String nextTip = config.msg("tip-next", "Next page");
+            Text.msg(src,
+                    "<gray>[</gray><aqua><hover:show_text:'"+Text.escape(prevTip)+"'><click:run_command:'/reporthistory page "+Math.max(1, shown-1)+"'>« Prev</click></hover></aqua><gray>] " +
+                    "[</gray><aqua><hover:show_text:'"+Text.escape(nextTip)+"'><click:run_command:'/reporthistory page "+Math.min(pages, shown+1)+"'>Next »</click></hover></aqua><gray>]</gray>"
+            );
+        });
     }
 
     /** List line matches /reports style: Target (no label) + [Assignee] + [Server] with hovers. */
@@ -311,13 +328,14 @@ public class ReportHistoryCommand implements SimpleCommand {
     }
 
     /** Infer server from source server or chat (falls back to UNKNOWN). */
-    private String inferServer(Report r) {
-        if (r == null) return "UNKNOWN";
-        if (r.sourceServer != null && !r.sourceServer.isBlank()) {
-            return r.sourceServer;
+    private String inferServer(Report report) {
+        if (report == null) return "UNKNOWN";
+        ReportSnapshot r = report.snapshot();
+        if (r.sourceServer() != null && !r.sourceServer().isBlank()) {
+            return r.sourceServer();
         }
-        if (r.reported != null && !r.reported.isBlank()) {
-            var opt = plugin.proxy().getPlayer(r.reported);
+        if (r.reported() != null && !r.reported().isBlank()) {
+            var opt = plugin.proxy().getPlayer(r.reported());
             if (opt.isPresent()) {
                 String current = opt.get().getCurrentServer()
                         .map(s -> s.getServerInfo().getName())
@@ -325,8 +343,8 @@ public class ReportHistoryCommand implements SimpleCommand {
                 if (current != null && !current.isBlank()) return current;
             }
         }
-        if (r.chat == null || r.chat.isEmpty()) return "UNKNOWN";
-        return r.chat.stream()
+        if (r.chat().isEmpty()) return "UNKNOWN";
+        return r.chat().inMemory().stream()
                 .max(Comparator.comparingLong(cm -> cm.time))
                 .map(cm -> cm.server == null || cm.server.isBlank() ? "UNKNOWN" : cm.server)
                 .orElse("UNKNOWN");
@@ -357,43 +375,46 @@ public class ReportHistoryCommand implements SimpleCommand {
     /** Paginated inline chat output when web viewer is disabled. */
     private void showChatPage(CommandSource src, Report r, int page) {
         int per = Math.max(1, config.previewLines);
-        int total = r.chat.size();
+        ReportSnapshot snap = r.snapshot();
+        int total = snap.chat().size();
         int pages = Math.max(1, (int)Math.ceil(total / (double) per));
         page = Math.min(Math.max(1, page), pages);
 
         int start = (page - 1) * per;
         int end = Math.min(start + per, total);
 
-        Text.msg(src, "<gray>Chat for #"+r.id+" — page "+page+"/"+pages+" ("+total+" lines):</gray>");
-        for (int i = start; i < end; i++) {
-            var m = r.chat.get(i);
-            String raw = "["+ TimeUtil.formatTime(m.time)+"] "+m.player+"@"+m.server+": "+m.message;
-            String safe = Text.escape(raw);
-            if (safe.length() > config.previewLineMaxChars) {
-                int lim = Math.max(0, config.previewLineMaxChars - 1);
-                safe = safe.substring(0, lim) + "…";
+        int shown = page;
+        mgr.chatLinesAsync(snap, start, end).thenAccept(lines -> {
+            Text.msg(src, "<gray>Chat for #"+r.id+" — page "+shown+"/"+pages+" ("+total+" lines):</gray>");
+            for (ChatMessage m : lines) {
+                String raw = "["+ TimeUtil.formatTime(m.time)+"] "+m.player+"@"+m.server+": "+m.message;
+                String safe = Text.escape(raw);
+                if (safe.length() > config.previewLineMaxChars) {
+                    int lim = Math.max(0, config.previewLineMaxChars - 1);
+                    safe = safe.substring(0, lim) + "…";
+                }
+                Text.msg(src, m.context ? "<dark_gray><i>"+ safe +"</i></dark_gray>" : "<gray>"+ safe +"</gray>");
             }
-            Text.msg(src, "<gray>"+ safe +"</gray>");
-        }
 
-        if (pages > 1) {
-            String prevTip = config.msg("tip-prev", "Previous page");
-            String nextTip = config.msg("tip-next", "Next page");
-            int prev = Math.max(1, page - 1);
-            int next = Math.min(pages, page + 1);
-            Component nav = Text.mm(
-                    "<gray>[</gray><aqua><hover:show_text:'"+Text.escape(prevTip)+"'><click:run_command:'/reporthistory chat "+r.id+" "+prev+"'>« Prev</click></hover></aqua><gray>] " +
-                    "[</gray><aqua><hover:show_text:'"+Text.escape(nextTip)+"'><click:run_command:'/reporthistory chat "+r.id+" "+next+"'>Next »</click></hover></aqua><gray>]</gray>"
-            );
-            src.sendMessage(nav);
-        }
+            if (pages > 1) {
+                String prevTip = config.msg("tip-prev", "Previous page");
+                String nextTip = config.msg("tip-next", "Next page");
+                int prev = Math.max(1, shown - 1);
+                int next = Math.min(pages, shown + 1);
+                Component nav = Text.mm(
+                        "<gray>[</gray><aqua><hover:show_text:'"+Text.escape(prevTip)+"'><click:run_command:'/reporthistory chat "+r.id+" "+prev+"'>« Prev</click></hover></aqua><gray>] " +
+                        "[</gray><aqua><hover:show_text:'"+Text.escape(nextTip)+"'><click:run_command:'/reporthistory chat "+r.id+" "+next+"'>Next »</click></hover></aqua><gray>]</gray>"
+                );
+                src.sendMessage(nav);
+            }
+        });
     }
 
     private List<String> historyIdSuggestions() {
         List<String> ids = new ArrayList<>();
         ids.add("<id>");
-        mgr.getClosedReportsDescending().stream()
-                .map(r -> String.valueOf(r.id))
+        mgr.closedIdsDescending().stream()
+                .map(String::valueOf)
                 .forEach(ids::add);
         return ids;
     }
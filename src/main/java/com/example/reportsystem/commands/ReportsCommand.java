@@ -2,11 +2,14 @@ package com.example.reportsystem.commands;
 
 import com.example.reportsystem.ReportSystem;
 import com.example.reportsystem.config.PluginConfig;
+import com.example.reportsystem.model.ChatMessage;
 import com.example.reportsystem.model.Report;
+import com.example.reportsystem.model.ReportSnapshot;
 import com.example.reportsystem.service.AuthService;
 import com.example.reportsystem.service.HtmlExporter;
 import com.example.reportsystem.service.ReportManager;
-import com.example.reportsystem.util.Pagination;
+import com.example.reportsystem.service.ReportPage;
+import com.example.reportsystem.util.Interner;
 import com.example.reportsystem.util.Text;
 import com.example.reportsystem.util.QuickActions;
 import com.example.reportsystem.util.TimeUtil;
@@ -36,11 +39,13 @@ public class ReportsCommand implements SimpleCommand {
     private static final List<String> ROOT_SUBCOMMANDS = List.of("page", "view", "claim", "claimed", "close",
             "chat", "assign", "unassign", "search", "debug", "reload", "auth", "logoutall",
             "assigntome", "unassignme");
+    private static final int SEARCH_LIMIT = 30;
 
     private final ReportSystem plugin;
     private final ReportManager mgr;
     private PluginConfig config;
     private final AuthService auth;
+    private final PageCursors cursors = new PageCursors();
 
     public ReportsCommand(ReportSystem plugin, ReportManager mgr, PluginConfig config, AuthService auth) {
         this.plugin = plugin;
@@ -96,12 +101,13 @@ public class ReportsCommand implements SimpleCommand {
             case "view" -> {
                 if (args.length < 2) { send(src, "usage-reports-view", "<yellow>Usage:</yellow> /reports view <id>"); return; }
                 long id = parseLong(args[1], -1);
-                Report r = mgr.get(id);
-                if (r == null || !r.isOpen()) {
-                    reply(src, config.msg("not-found","No such report: #%id%").replace("%id%", args[1]));
-                    return;
-                }
-                expand(src, r);
+                CommandSupport.withReport(mgr, src, id, r -> {
+                    if (r == null || !r.isOpen()) {
+                        reply(src, config.msg("not-found","No such report: #%id%").replace("%id%", args[1]));
+                        return;
+                    }
+                    expand(src, r);
+                });
             }
 
             case "claim" -> {
@@ -109,46 +115,37 @@ public class ReportsCommand implements SimpleCommand {
 
                 if (args.length >= 2) {
                     long id = parseLong(args[1], -1);
-                    Report r = mgr.get(id);
-                    if (r == null || !r.isOpen()) { send(src, "reports-no-open", "<red>No such open report.</red>"); return; }
-
-                    if (r.assignee != null && !r.assignee.isBlank() && !p.getUsername().equalsIgnoreCase(r.assignee)) {
-                        if (!src.hasPermission(config.forceClaimPermission) && !src.hasPermission(config.adminPermission)) {
-                            String msgForce = msg("reports-force-claim-required", "<red>Already claimed by %assignee% (need force-claim).</red>")
-                                    .replace("%assignee%", Text.escape(r.assignee));
-                            reply(src, msgForce);
-                            return;
+                    CommandSupport.withReport(mgr, src, id, r -> {
+                        if (r == null || !r.isOpen()) { send(src, "reports-no-open", "<red>No such open report.</red>"); return; }
+
+                        if (r.assignee != null && !r.assignee.isBlank() && !p.getUsername().equalsIgnoreCase(r.assignee)) {
+                            if (!src.hasPermission(config.forceClaimPermission) && !src.hasPermission(config.adminPermission)) {
+                                String msgForce = msg("reports-force-claim-required", "<red>Already claimed by %assignee% (need force-claim).</red>")
+                                        .replace("%assignee%", Text.escape(r.assignee));
+                                reply(src, msgForce);
+                                return;
+                            }
                         }
-                    }
-                    mgr.assign(r.id, p.getUsername());
-                    String claim = msg("reports-claim-success", "<gray>You claimed report <white>#%id%</white>.</gray>")
-                            .replace("%id%", String.valueOf(r.id));
-                    reply(src, withExpand(r, claim));
+                        CommandSupport.warnIfNotSaved(config, src, r.id, mgr.assign(r.id, p.getUsername()));
+                        String claim = msg("reports-claim-success", "<gray>You claimed report <white>#%id%</white>.</gray>")
+                                .replace("%id%", String.valueOf(r.id));
+                        reply(src, withExpand(r, claim));
+                    });
                 } else {
-                    var open = mgr.getOpenReportsDescending();
-                    if (open.isEmpty()) { reply(src, config.msg("claim-none", "<gray>No claimable reports available.</gray>")); return; }
+                    if (mgr.countOpenReports() == 0) { reply(src, config.msg("claim-none", "<gray>No claimable reports available.</gray>")); return; }
 
                     boolean canForce = src.hasPermission(config.forceClaimPermission) || src.hasPermission(config.adminPermission);
-                    Report target = null;
+                    Report target = mgr.highestPriorityUnclaimed();
                     Report forceCandidate = null;
 
-                    for (Report r : open) {
-                        boolean hasAssignee = r.assignee != null && !r.assignee.isBlank();
-                        if (!hasAssignee) {
-                            target = r;
-                            break;
-                        }
-                        if (p.getUsername().equalsIgnoreCase(r.assignee)) {
-                            continue; // already owned by caller; look for next available
-                        }
-                        if (canForce && forceCandidate == null) {
-                            forceCandidate = r;
-                        }
+                    if (target == null && canForce) {
+                        // everything is claimed: fall back to the top report owned by someone else
+                        forceCandidate = mgr.highestPriorityClaimedByOther(p.getUsername());
                     }
 
                     if (target == null) {
                         if (forceCandidate != null) {
-                            mgr.assign(forceCandidate.id, p.getUsername());
+                            CommandSupport.warnIfNotSaved(config, src, forceCandidate.id, mgr.assign(forceCandidate.id, p.getUsername()));
                             String forced = config.msg("force-claimed", "<gray>You force-claimed report <white>#%id%</white>.</gray>")
                                     .replace("%id%", String.valueOf(forceCandidate.id));
                             reply(src, withExpand(forceCandidate, forced));
@@ -158,7 +155,7 @@ public class ReportsCommand implements SimpleCommand {
                         return;
                     }
 
-                    mgr.assign(target.id, p.getUsername());
+                    CommandSupport.warnIfNotSaved(config, src, target.id, mgr.assign(target.id, p.getUsername()));
                     String claimMsg = msg("reports-claim-success", "<gray>You claimed report <white>#%id%</white>.</gray>")
                             .replace("%id%", String.valueOf(target.id));
                     reply(src, withExpand(target, claimMsg));
@@ -167,9 +164,7 @@ public class ReportsCommand implements SimpleCommand {
 
             case "claimed" -> {
                 if (!(src instanceof Player p)) { send(src, "error-players-only", "<red>Players only.</red>"); return; }
-                var mine = mgr.getOpenReportsDescending().stream()
-                        .filter(r -> r.assignee != null && r.assignee.equalsIgnoreCase(p.getUsername()))
-                        .toList();
+                var mine = mgr.getOpenReportsAssignedTo(p.getUsername());
                 if (mine.isEmpty()) {
                     send(src, "reports-claimed-empty", "<gray>You have no claimed reports.</gray>");
                 } else {
@@ -191,145 +186,162 @@ public class ReportsCommand implements SimpleCommand {
             case "close" -> {
                 if (args.length < 2) { send(src, "usage-reports-close", "<yellow>Usage:</yellow> /reports close <id>"); return; }
                 long id = parseLong(args[1], -1);
-                Report r = mgr.get(id);
-                if (r == null) {
-                    reply(src, config.msg("not-found","No such report: #%id%").replace("%id%", args[1]));
-                    return;
-                }
-                mgr.close(id); mgr.save();
-                reply(src, config.msg("closed","Closed report #%id%").replace("%id%", String.valueOf(id)));
-                try {
-                    Object n = plugin.notifier();
-                    if (n != null) n.getClass().getMethod("notifyClosed", Report.class).invoke(n, r);
-                } catch (Throwable ignored) {}
+                CommandSupport.withReport(mgr, src, id, r -> {
+                    if (r == null) {
+                        reply(src, config.msg("not-found","No such report: #%id%").replace("%id%", args[1]));
+                        return;
+                    }
+                    CommandSupport.warnIfNotSaved(config, src, id, mgr.close(id)); mgr.save();
+                    reply(src, config.msg("closed","Closed report #%id%").replace("%id%", String.valueOf(id)));
+                    try {
+                        Object n = plugin.notifier();
+                        if (n != null) n.getClass().getMethod("notifyClosed", Report.class).invoke(n, r);
+                    } catch (Throwable ignored) {}
+                });
             }
 
             case "chat" -> {
                 if (args.length < 2) { send(src, "usage-reports-chat", "<yellow>Usage:</yellow> /reports chat <id> [page]"); return; }
                 long id = parseLong(args[1], -1);
-                Report r = mgr.get(id);
-                if (r == null) {
-                    reply(src, config.msg("not-found","No such report: #%id%").replace("%id%", args[1]));
-                    return;
-                }
-                if (r.chat == null || r.chat.isEmpty()) {
-                    reply(src, config.msg("chatlog-none","No chat messages were captured for this report."));
-                    return;
-                }
+                CommandSupport.withReport(mgr, src, id, r -> {
+                    if (r == null) {
+                        reply(src, config.msg("not-found","No such report: #%id%").replace("%id%", args[1]));
+                        return;
+                    }
+                    if (r.snapshot().chat().isEmpty()) {
+                        reply(src, config.msg("chatlog-none","No chat messages were captured for this report."));
+                        return;
+                    }
 
-                boolean webEnabled = config.httpServer != null && config.httpServer.enabled;
-                if (webEnabled) {
-                    try {
+                    boolean webEnabled = config.httpServer != null && config.httpServer.enabled;
+                    if (webEnabled) {
                         // Ensure export exists (do not show local path)
-                        new HtmlExporter(plugin, config).export(r);
-                        String link = buildPublicLinkFor(r);
-                        if (link == null || link.isBlank()) {
-                            send(src, "reports-chatlog-misconfigured", "<red>Web viewer is enabled but external/public base URL is not configured.</red>");
-                            return;
+                        ReportSnapshot snap = r.snapshot();
+                        mgr.chatLinesAsync(snap).thenAccept(lines -> {
+                            try {
+                                new HtmlExporter(plugin, config).export(snap, lines);
+                                String link = buildPublicLinkFor(r);
+                                if (link == null || link.isBlank()) {
+                                    send(src, "reports-chatlog-misconfigured", "<red>Web viewer is enabled but external/public base URL is not configured.</red>");
+                                    return;
+                                }
+                                String tip = config.msg("tip-open-browser", "Open in browser");
+                                reply(src, "<gray>[</gray><aqua><hover:show_text:'"+Text.escape(tip)+"'><click:open_url:'" + link + "'>"+config.msg("open-chatlog-label","Open chat log")+"</click></hover></aqua><gray>]</gray>");
+                            } catch (Exception ex) {
+                                String template = msg("reports-chatlog-export-failed", "<red>Failed to export HTML chat log:</red> <gray>%error%</gray>");
+                                reply(src, template.replace("%error%", Text.escape(ex.getMessage())));
+                            }
+                        });
+                    } else {
+                        // Paginated inline echo
+                        int page = 1;
+                        if (args.length >= 3) {
+                            try { page = Math.max(1, Integer.parseInt(args[2])); } catch (Exception ignored) {}
                         }
-                        String tip = config.msg("tip-open-browser", "Open in browser");
-                        reply(src, "<gray>[</gray><aqua><hover:show_text:'"+Text.escape(tip)+"'><click:open_url:'" + link + "'>"+config.msg("open-chatlog-label","Open chat log")+"</click></hover></aqua><gray>]</gray>");
-                    } catch (Exception ex) {
-                        String template = msg("reports-chatlog-export-failed", "<red>Failed to export HTML chat log:</red> <gray>%error%</gray>");
-                        reply(src, template.replace("%error%", Text.escape(ex.getMessage())));
-                    }
-                } else {
-                    // Paginated inline echo
-                    int page = 1;
-                    if (args.length >= 3) {
-                        try { page = Math.max(1, Integer.parseInt(args[2])); } catch (Exception ignored) {}
+                        showChatPage(src, r, page);
                     }
-                    showChatPage(src, r, page);
-                }
+                });
             }
 
             case "assign" -> {
                 if (args.length < 3) { send(src, "usage-reports-assign", "<yellow>Usage:</yellow> /reports assign <id> <staff>"); return; }
                 long id = parseLong(args[1], -1);
-                Report r = mgr.get(id);
-                if (r == null) {
-                    reply(src, config.msg("not-found","No such report: #%id%").replace("%id%", args[1]));
-                    return;
-                }
-                String staff = args[2];
-
-                if (r.assignee != null && !r.assignee.isBlank() && !staff.equalsIgnoreCase(r.assignee)) {
-                    if (!src.hasPermission(config.forceClaimPermission) && !src.hasPermission(config.adminPermission)) {
-                        reply(src, msg("reports-force-claim-required", "<red>Already claimed by %assignee% (need force-claim).</red>")
-                                .replace("%assignee%", Text.escape(r.assignee)));
+                CommandSupport.withReport(mgr, src, id, r -> {
+                    if (r == null) {
+                        reply(src, config.msg("not-found","No such report: #%id%").replace("%id%", args[1]));
                         return;
                     }
-                }
+                    String staff = args[2];
+
+                    if (r.assignee != null && !r.assignee.isBlank() && !staff.equalsIgnoreCase(r.assignee)) {
+                        if (!src.hasPermission(config.forceClaimPermission) && !src.hasPermission(config.adminPermission)) {
+                            reply(src, msg("reports-force-claim-required", "<red>Already claimed by %assignee% (need force-claim).</red>")
+                                    .replace("%assignee%", Text.escape(r.assignee)));
+                            return;
+                        }
+                    }
 
-                mgr.assign(id, staff);
-                String assigned = config.msg("assigned","Assigned report #%id% to %assignee%")
-                        .replace("%id%", String.valueOf(id)).replace("%assignee%", staff);
-                reply(src, withExpand(r, assigned));
-                try {
-                    Object n = plugin.notifier();
-                    if (n != null) n.getClass().getMethod("notifyAssigned", Report.class, String.class).invoke(n, r, staff);
-                } catch (Throwable ignored) {}
+                    CommandSupport.warnIfNotSaved(config, src, id, mgr.assign(id, staff));
+                    String assigned = config.msg("assigned","Assigned report #%id% to %assignee%")
+                            .replace("%id%", String.valueOf(id)).replace("%assignee%", staff);
+                    reply(src, withExpand(r, assigned));
+                    try {
+                        Object n = plugin.notifier();
+                        if (n != null) n.getClass().getMethod("notifyAssigned", Report.class, String.class).invoke(n, r, staff);
+                    } catch (Throwable ignored) {}
+                });
             }
 
             case "unassign" -> {
                 if (args.length < 2) { send(src, "usage-reports-unassign", "<yellow>Usage:</yellow> /reports unassign <id>"); return; }
                 long id = parseLong(args[1], -1);
-                Report r = mgr.get(id);
-                if (r == null) {
-                    reply(src, config.msg("not-found","No such report: #%id%").replace("%id%", args[1]));
-                    return;
-                }
-                if (r.assignee == null || r.assignee.isBlank()) {
-                    reply(src, config.msg("already-unassigned","Report #%id% is not assigned.").replace("%id%", String.valueOf(id)));
-                    return;
-                }
-                mgr.unassign(id);
-                reply(src, config.msg("unassigned","Unassigned report #%id%").replace("%id%", String.valueOf(id)));
-                try {
-                    Object n = plugin.notifier();
-                    if (n != null) n.getClass().getMethod("notifyUnassigned", Report.class).invoke(n, r);
-                } catch (Throwable ignored) {}
+                CommandSupport.withReport(mgr, src, id, r -> {
+                    if (r == null) {
+                        reply(src, config.msg("not-found","No such report: #%id%").replace("%id%", args[1]));
+                        return;
+                    }
+                    if (r.assignee == null || r.assignee.isBlank()) {
+                        reply(src, config.msg("already-unassigned","Report #%id% is not assigned.").replace("%id%", String.valueOf(id)));
+                        return;
+                    }
+                    CommandSupport.warnIfNotSaved(config, src, id, mgr.unassign(id));
+                    reply(src, config.msg("unassigned","Unassigned report #%id%").replace("%id%", String.valueOf(id)));
+                    try {
+                        Object n = plugin.notifier();
+                        if (n != null) n.getClass().getMethod("notifyUnassigned", Report.class).invoke(n, r);
+                    } catch (Throwable ignored) {}
+                });
             }
 
             case "search" -> {
                 if (args.length < 2) { send(src, "usage-reports-search", "<yellow>Usage:</yellow> /reports search <query> [open|closed|all]</yellow>"); return; }
                 String scope = args.length >= 3 ? args[2] : "open";
                 String query = args[1];
-                var results = mgr.search(query, scope);
-                if (results.isEmpty()) { reply(src, config.msg("search-empty","No matching reports.")); return; }
-                reply(src, config.msg("search-header","Search: %query% (%scope%)")
-                        .replace("%query%", query).replace("%scope%", scope));
-                int shown = 0, limit = Math.min(30, results.size());
-                String tip = expandTip();
-                String entryTemplate = msg("reports-list-entry",
-                        "%row%  <gray>[</gray><aqua><hover:show_text:'%expand_tip%'><click:run_command:'/reports view %id%'>%expand_label%</click></hover></aqua><gray>]</gray>");
-                String expandLabel = expandLabel();
-                for (int i=0;i<limit;i++) {
-                    Report r = results.get(i);
-                    String entry = entryTemplate
-                            .replace("%row%", fmtListLine(r))
-                            .replace("%id%", String.valueOf(r.id))
-                            .replace("%expand_tip%", Text.escape(tip))
-                            .replace("%expand_label%", Text.escape(expandLabel));
-                    reply(src, entry);
-                    shown++;
-                }
-                if (results.size() > shown) {
-                    String extra = msg("reports-search-more", "<gray>…and %count% more.</gray>")
-                            .replace("%count%", String.valueOf(results.size() - shown));
-                    reply(src, extra);
+                if (!ReportManager.isSearchable(query)) {
+                    send(src, "reports-search-too-short",
+                            "<gray>Search for at least 3 characters, or an exact report id.</gray>");
+                    return;
                 }
+                // one extra result tells us whether there is more than we show; closed matches may load off-thread
+                CommandSupport.replyWhenDone(src, mgr.searchAsync(query, scope, SEARCH_LIMIT + 1), results -> {
+                    if (results.isEmpty()) { reply(src, config.msg("search-empty","No matching reports.")); return; }
+                    reply(src, config.msg("search-header","Search: %query% (%scope%)")
+                            .replace("%query%", query).replace("%scope%", scope));
+                    int shown = 0, limit = Math.min(SEARCH_LIMIT, results.size());
+                    String tip = expandTip();
+                    String entryTemplate = msg("reports-list-entry",
+                            "%row%  <gray>[</gray><aqua><hover:show_text:'%expand_tip%'><click:run_command:'/reports view %id%'>%expand_label%</click></hover></aqua><gray>]</gray>");
+                    String expandLabel = expandLabel();
+                    for (int i=0;i<limit;i++) {
+                        Report r = results.get(i);
+                        String entry = entryTemplate
+                                .replace("%row%", fmtListLine(r))
+                                .replace("%id%", String.valueOf(r.id))
+                                .replace("%expand_tip%", Text.escape(tip))
+                                .replace("%expand_label%", Text.escape(expandLabel));
+                        reply(src, entry);
+                        shown++;
+                    }
+                    if (results.size() > shown) {
+                        send(src, "reports-search-truncated",
+                                "<gray>Showing the newest matches only; refine the query to narrow it down.</gray>");
+                    }
+                });
             }
 
             case "debug" -> {
-                if (args.length < 2) { send(src, "usage-reports-debug", "<yellow>Usage:</yellow> /reports debug <id>"); return; }
-                long id = parseLong(args[1], -1);
-                Report r = mgr.get(id);
-                if (r == null || !r.isOpen()) {
-                    reply(src, config.msg("not-found","No such report: #%id%").replace("%id%", args[1]));
+                if (args.length < 2) {
+                    showDebugSummary(src);
                     return;
                 }
-                showPriorityBreakdown(src, r);
+                long id = parseLong(args[1], -1);
+                CommandSupport.withReport(mgr, src, id, r -> {
+                    if (r == null || !r.isOpen()) {
+                        reply(src, config.msg("not-found","No such report: #%id%").replace("%id%", args[1]));
+                        return;
+                    }
+                    showPriorityBreakdown(src, r);
+                });
             }
 
             case "reload" -> {
@@ -392,41 +404,43 @@ public class ReportsCommand implements SimpleCommand {
                 if (!(src instanceof Player p)) { send(src, "error-players-only", "<red>Players only.</red>"); return; }
                 if (args.length < 2) { send(src, "usage-reports-assigntome", "<yellow>Usage:</yellow> /reports assigntome <id>"); return; }
                 long id = parseLong(args[1], -1);
-                Report r = mgr.get(id);
-                if (r == null) { reply(src, config.msg("not-found","No such report: #%id%").replace("%id%", args[1])); return; }
-
-                if (r.assignee != null && !r.assignee.isBlank() && !p.getUsername().equalsIgnoreCase(r.assignee)) {
-                    if (!src.hasPermission(config.forceClaimPermission) && !src.hasPermission(config.adminPermission)) {
-                        String msg = msg("reports-force-claim-required", "<red>Already claimed by %assignee% (need force-claim).</red>")
-                                .replace("%assignee%", Text.escape(r.assignee));
-                        reply(src, msg);
-                        return;
+                CommandSupport.withReport(mgr, src, id, r -> {
+                    if (r == null) { reply(src, config.msg("not-found","No such report: #%id%").replace("%id%", args[1])); return; }
+
+                    if (r.assignee != null && !r.assignee.isBlank() && !p.getUsername().equalsIgnoreCase(r.assignee)) {
+                        if (!src.hasPermission(config.forceClaimPermission) && !src.hasPermission(config.adminPermission)) {
+                            String msg = msg("reports-force-claim-required", "<red>Already claimed by %assignee% (need force-claim).</red>")
+                                    .replace("%assignee%", Text.escape(r.assignee));
+                            reply(src, msg);
+                            return;
+                        }
                     }
-                }
-                mgr.assign(id, p.getUsername());
-                String selfAssign = msg("reports-assign-self", "<gray>Assigned report <white>#%id%</white> to you.</gray>")
-                        .replace("%id%", String.valueOf(id));
-                reply(src, withExpand(r, selfAssign));
+                    CommandSupport.warnIfNotSaved(config, src, id, mgr.assign(id, p.getUsername()));
+                    String selfAssign = msg("reports-assign-self", "<gray>Assigned report <white>#%id%</white> to you.</gray>")
+                            .replace("%id%", String.valueOf(id));
+                    reply(src, withExpand(r, selfAssign));
+                });
             }
 
             case "unassignme" -> {
                 if (!(src instanceof Player p)) { send(src, "error-players-only", "<red>Players only.</red>"); return; }
                 if (args.length < 2) { send(src, "usage-reports-unassignme", "<yellow>Usage:</yellow> /reports unassignme <id>"); return; }
                 long id = parseLong(args[1], -1);
-                Report r = mgr.get(id);
-                if (r == null) { reply(src, config.msg("not-found","No such report: #%id%").replace("%id%", args[1])); return; }
-                if (r.assignee == null || r.assignee.isBlank()) {
-                    reply(src, config.msg("already-unassigned","Report #%id% is not assigned.").replace("%id%", String.valueOf(id)));
-                    return;
-                }
-                if (!p.getUsername().equalsIgnoreCase(r.assignee)) {
-                    reply(src, msg("reports-unassign-not-owner", "<red>You are not the assignee for #%id%.</red>")
+                CommandSupport.withReport(mgr, src, id, r -> {
+                    if (r == null) { reply(src, config.msg("not-found","No such report: #%id%").replace("%id%", args[1])); return; }
+                    if (r.assignee == null || r.assignee.isBlank()) {
+                        reply(src, config.msg("already-unassigned","Report #%id% is not assigned.").replace("%id%", String.valueOf(id)));
+                        return;
+                    }
+                    if (!p.getUsername().equalsIgnoreCase(r.assignee)) {
+                        reply(src, msg("reports-unassign-not-owner", "<red>You are not the assignee for #%id%.</red>")
+                                .replace("%id%", String.valueOf(id)));
+                        return;
+                    }
+                    CommandSupport.warnIfNotSaved(config, src, id, mgr.unassign(id));
+                    reply(src, msg("reports-unassign-self", "<gray>Unassigned report <white>#%id%</white>.</gray>")
                             .replace("%id%", String.valueOf(id)));
-                    return;
-                }
-                mgr.unassign(id);
-                reply(src, msg("reports-unassign-self", "<gray>Unassigned report <white>#%id%</white>.</gray>")
-                        .replace("%id%", String.valueOf(id)));
+                });
             }
 
             default -> showPage(src, 1, null, null);
@@ -534,17 +548,11 @@ public class ReportsCommand implements SimpleCommand {
 
     /** Optional filtering: by type and category. */
     private void showPage(CommandSource src, int requestedPage, String typeFilter, String categoryFilter) {
-        List<Report> open = mgr.getOpenReportsDescending();
-        if (typeFilter != null) {
-            open = open.stream().filter(r -> r.typeId.equalsIgnoreCase(typeFilter)).toList();
-            if (categoryFilter != null) {
-                open = open.stream().filter(r -> r.categoryId.equalsIgnoreCase(categoryFilter)).toList();
-            }
-        }
-        if (open.isEmpty()) { reply(src, config.msg("page-empty","No open reports.")); return; }
+        int total = mgr.countOpenReports(typeFilter, categoryFilter);
+        if (total == 0) { reply(src, config.msg("page-empty","No open reports.")); return; }
 
         int per = Math.max(1, config.reportsPerPage);
-        int pages = Math.max(1, (int) Math.ceil(open.size() / (double) per));
+        int pages = Math.max(1, (int) Math.ceil(total / (double) per));
         int page = Math.min(Math.max(1, requestedPage), pages);
         boolean clamped = page != requestedPage;
         boolean overshoot = requestedPage > pages;
@@ -562,7 +570,11 @@ public class ReportsCommand implements SimpleCommand {
         String entryTemplate = msg("reports-list-entry",
                 "%row%  <gray>[</gray><aqua><hover:show_text:'%expand_tip%'><click:run_command:'/reports view %id%'>%expand_label%</click></hover></aqua><gray>]</gray>");
         String expandLabel = expandLabel();
-        for (Report r : Pagination.paginate(open, per, page)) {
+        // "Next »" resumes from where this viewer's previous page ended
+        String view = typeFilter == null ? "" : typeFilter + "/" + (categoryFilter == null ? "*" : categoryFilter);
+        ReportPage result = mgr.getOpenReportsPage(typeFilter, categoryFilter, page, per, cursors.before(src, view, page));
+        cursors.remember(src, view, page, result.next());
+        for (Report r : result.rows()) {
             String entry = entryTemplate
                     .replace("%row%", fmtListLine(r))
                     .replace("%id%", String.valueOf(r.id))
@@ -621,21 +633,22 @@ public class ReportsCommand implements SimpleCommand {
     }
 
     /** Prefer target's current server, then sourceServer, then newest chat server. */
-    private String deriveServer(Report r) {
+    private String deriveServer(Report report) {
+        ReportSnapshot r = report.snapshot();
         // 1) target online now?
-        if (r.reported != null && !r.reported.isBlank()) {
-            var opt = plugin.proxy().getPlayer(r.reported);
+        if (r.reported() != null && !r.reported().isBlank()) {
+            var opt = plugin.proxy().getPlayer(r.reported());
             if (opt.isPresent()) {
                 var sv = opt.get().getCurrentServer().map(s -> s.getServerInfo().getName()).orElse(null);
                 if (sv != null && !sv.isBlank()) return sv;
             }
         }
         // 2) source server (where the report was filed from)
-        if (r.sourceServer != null && !r.sourceServer.isBlank()) return r.sourceServer;
+        if (r.sourceServer() != null && !r.sourceServer().isBlank()) return r.sourceServer();
 
         // 3) newest chat line's server
-        if (r.chat != null && !r.chat.isEmpty()) {
-            return r.chat.stream()
+        if (!r.chat().isEmpty()) {
+            return r.chat().inMemory().stream()
                     .max(Comparator.comparingLong(cm -> cm.time))
                     .map(cm -> (cm.server == null || cm.server.isBlank()) ? null : cm.server)
                     .orElse(null);
@@ -798,40 +811,46 @@ public class ReportsCommand implements SimpleCommand {
     /** Paginated inline chat output when web viewer is disabled. */
     private void showChatPage(CommandSource src, Report r, int page) {
         int per = Math.max(1, config.previewLines);
-        int total = r.chat.size();
+        ReportSnapshot snap = r.snapshot();
+        int total = snap.chat().size();
         int pages = Math.max(1, (int)Math.ceil(total / (double) per));
         page = Math.min(Math.max(1, page), pages);
 
         int start = (page - 1) * per;
-                int end = Math.min(start + per, total);
-
-                reply(src, msg("reports-chat-header", "<gray>Chat for #%id% — page %page%/%pages% (%total% lines):</gray>")
-                        .replace("%id%", String.valueOf(r.id))
-                        .replace("%page%", String.valueOf(page))
-                        .replace("%pages%", String.valueOf(pages))
-                        .replace("%total%", String.valueOf(total)));
-                for (int i = start; i < end; i++) {
-                    var m = r.chat.get(i);
-                    String raw = "["+ TimeUtil.formatTime(m.time)+"] "+m.player+"@"+m.server+": "+m.message;
-                    String safe = Text.escape(raw);
-                    if (safe.length() > config.previewLineMaxChars) {
-                        int lim = Math.max(0, config.previewLineMaxChars - 1);
-                        safe = safe.substring(0, lim) + "…";
-                    }
-                    reply(src, msg("reports-chat-line", "<gray>%line%</gray>").replace("%line%", safe));
-                }
+        int end = Math.min(start + per, total);
 
-        if (pages > 1) {
-            String prevTip = config.msg("tip-prev", "Previous page");
-            String nextTip = config.msg("tip-next", "Next page");
-            int prev = Math.max(1, page - 1);
-            int next = Math.min(pages, page + 1);
-            Component nav = Text.mm(
-                    "<gray>[</gray><aqua><hover:show_text:'"+Text.escape(prevTip)+"'><click:run_command:'/reports chat "+r.id+" "+prev+"'>« Prev</click></hover></aqua><gray>] " +
-                    "[</gray><aqua><hover:show_text:'"+Text.escape(nextTip)+"'><click:run_command:'/reports chat "+r.id+" "+next+"'>Next »</click></hover></aqua><gray>]</gray>"
-            );
-            src.sendMessage(nav);
-        }
+        int shown = page;
+        mgr.chatLinesAsync(snap, start, end).thenAccept(lines -> {
+            reply(src, msg("reports-chat-header", "<gray>Chat for #%id% — page %page%/%pages% (%total% lines):</gray>")
+                    .replace("%id%", String.valueOf(r.id))
+                    .replace("%page%", String.valueOf(shown))
+                    .replace("%pages%", String.valueOf(pages))
+                    .replace("%total%", String.valueOf(total)));
+            for (ChatMessage m : lines) {
+                String raw = "["+ TimeUtil.formatTime(m.time)+"] "+m.player+"@"+m.server+": "+m.message;
+                String safe = Text.escape(raw);
+                if (safe.length() > config.previewLineMaxChars) {
+                    int lim = Math.max(0, config.previewLineMaxChars - 1);
+                    safe = safe.substring(0, lim) + "…";
+                }
+                String line = m.context
+                        ? msg("reports-chat-context-line", "<dark_gray><i>%line%</i></dark_gray>")
+                        : msg("reports-chat-line", "<gray>%line%</gray>");
+                reply(src, line.replace("%line%", safe));
+            }
+
+            if (pages > 1) {
+                String prevTip = config.msg("tip-prev", "Previous page");
+                String nextTip = config.msg("tip-next", "Next page");
+                int prev = Math.max(1, shown - 1);
+                int next = Math.min(pages, shown + 1);
+                Component nav = Text.mm(
+                        "<gray>[</gray><aqua><hover:show_text:'"+Text.escape(prevTip)+"'><click:run_command:'/reports chat "+r.id+" "+prev+"'>« Prev</click></hover></aqua><gray>] " +
+                        "[</gray><aqua><hover:show_text:'"+Text.escape(nextTip)+"'><click:run_command:'/reports chat "+r.id+" "+next+"'>Next »</click></hover></aqua><gray>]</gray>"
+                );
+                src.sendMessage(nav);
+            }
+        });
     }
 
     private List<String> idSuggestions(boolean assignedOnly) {
@@ -908,6 +927,32 @@ public class ReportsCommand implements SimpleCommand {
         return message + " " + button;
     }
 
+    /** /reports debug without an id: index sizes and string pool savings. */
+    private void showDebugSummary(CommandSource src) {
+        reply(src, msg("reports-debug-summary", "<gray>%summary%</gray>")
+                .replace("%summary%", Text.escape(mgr.debugSummary())));
+        reply(src, msg("reports-debug-strings", "<gray>Strings: <white>%pooled%</white> pooled, <white>%shared%</white> duplicates shared, ~<white>%saved%</white> KiB saved</gray>")
+                .replace("%pooled%", String.valueOf(Interner.size()))
+                .replace("%shared%", String.valueOf(Interner.shared()))
+                .replace("%saved%", String.valueOf(Interner.savedBytes() / 1024)));
+        var buffer = plugin.chatLogs().bufferStats();
+        reply(src, msg("reports-debug-chat-buffer", "<gray>Chat buffer: <white>%players%</white> players, <white>%lines%</white> lines, ~<white>%size%</white> KiB</gray>")
+                .replace("%players%", String.valueOf(buffer.keys()))
+                .replace("%lines%", String.valueOf(buffer.lines()))
+                .replace("%size%", String.valueOf(buffer.bytes() / 1024)));
+        var context = plugin.chatLogs().contextStats();
+        reply(src, msg("reports-debug-chat-context", "<gray>Conversation buffer: <white>%servers%</white> servers, <white>%lines%</white> lines, ~<white>%size%</white> KiB</gray>")
+                .replace("%servers%", String.valueOf(context.keys()))
+                .replace("%lines%", String.valueOf(context.lines()))
+                .replace("%size%", String.valueOf(context.bytes() / 1024)));
+        var queue = plugin.chatLogs().queueStats();
+        reply(src, msg("reports-debug-chat-queue", "<gray>Chat queue: <white>%queued%</white> queued, <white>%dropped%</white> dropped, <white>%batches%</white> batches, <white>%backlog%</white> waiting</gray>")
+                .replace("%queued%", String.valueOf(queue.queued()))
+                .replace("%dropped%", String.valueOf(queue.dropped()))
+                .replace("%batches%", String.valueOf(queue.batches()))
+                .replace("%backlog%", String.valueOf(queue.backlog())));
+    }
+
     private void showPriorityBreakdown(CommandSource src, Report r) {
         var breakdown = mgr.debugPriority(r);
         if (!breakdown.enabled) {
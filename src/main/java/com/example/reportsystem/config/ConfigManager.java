@@ -8,6 +8,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 public class ConfigManager {
@@ -125,6 +126,7 @@ public class ConfigManager {
         pc.priority.weightSlaBreach  = dbl(pr, "w-sla-breach", pc.priority.weightSlaBreach);
 
         pc.priority.tauMs            = dbl(pr, "tau-ms", pc.priority.tauMs);
+        pc.priority.rescoreIntervalSeconds = (long) dbl(pr, "rescore-interval-seconds", pc.priority.rescoreIntervalSeconds);
 
         Map<String,Object> severity = (Map<String,Object>) pr.getOrDefault("severity-by-key", Map.of());
         for (Map.Entry<String,Object> entry : severity.entrySet()) {
@@ -136,6 +138,20 @@ public class ConfigManager {
             pc.priority.slaMinutes.put(entry.getKey().toLowerCase(), (int)Math.max(0, dbl(entry.getValue(), 0d)));
         }
 
+        // Conversation context attached to new reports
+        Map<String,Object> cc = (Map<String,Object>) root.getOrDefault("chat-context", Map.of());
+        pc.chatContext.enabled           = bool(cc, "enabled", pc.chatContext.enabled);
+        pc.chatContext.windowSeconds     = (int) dbl(cc, "window-seconds", pc.chatContext.windowSeconds);
+        pc.chatContext.maxLines          = (int) dbl(cc, "max-lines", pc.chatContext.maxLines);
+        pc.chatContext.memoryKbPerServer = (int) dbl(cc, "memory-kb-per-server", pc.chatContext.memoryKbPerServer);
+        if (cc.get("report-types") instanceof List<?> lst) {
+            List<String> types = new ArrayList<>();
+            for (Object o : lst) {
+                if (o != null && !String.valueOf(o).isBlank()) types.add(String.valueOf(o).trim().toLowerCase(Locale.ROOT));
+            }
+            pc.chatContext.reportTypes = types;
+        }
+
         // Messages
         pc.messages = (Map<String, Object>) root.getOrDefault("messages", Map.of());
 
@@ -181,6 +197,43 @@ public class ConfigManager {
         mysqlCfg.password = get(mysql, "password", mysqlCfg.password);
         mysqlCfg.params = get(mysql, "params", mysqlCfg.params);
         mysqlCfg.table = get(mysql, "table", mysqlCfg.table);
+        mysqlCfg.schema = get(mysql, "schema", mysqlCfg.schema);
+        Map<String, Object> pool = (Map<String, Object>) mysql.getOrDefault("pool", Map.of());
+        PluginConfig.MysqlPoolConfig poolCfg = mysqlCfg.pool;
+        poolCfg.maximumPoolSize = (int) dbl(pool, "maximum-pool-size", poolCfg.maximumPoolSize);
+        poolCfg.minimumIdle = (int) dbl(pool, "minimum-idle", poolCfg.minimumIdle);
+        poolCfg.connectionTimeoutMs = (long) dbl(pool, "connection-timeout-ms", poolCfg.connectionTimeoutMs);
+        poolCfg.idleTimeoutMs = (long) dbl(pool, "idle-timeout-ms", poolCfg.idleTimeoutMs);
+        poolCfg.maxLifetimeMs = (long) dbl(pool, "max-lifetime-ms", poolCfg.maxLifetimeMs);
+        poolCfg.validationTimeoutMs = (long) dbl(pool, "validation-timeout-ms", poolCfg.validationTimeoutMs);
+        poolCfg.cachePrepStmts = bool(pool, "cache-prep-stmts", poolCfg.cachePrepStmts);
+        poolCfg.useServerPrepStmts = bool(pool, "use-server-prep-stmts", poolCfg.useServerPrepStmts);
+        poolCfg.prepStmtCacheSize = (int) dbl(pool, "prep-stmt-cache-size", poolCfg.prepStmtCacheSize);
+        poolCfg.prepStmtCacheSqlLimit = (int) dbl(pool, "prep-stmt-cache-sql-limit", poolCfg.prepStmtCacheSqlLimit);
+        Map<String, Object> journal = (Map<String, Object>) storage.getOrDefault("journal", Map.of());
+        PluginConfig.JournalStorageConfig journalCfg = pc.storage.journal;
+        journalCfg.fsync = bool(journal, "fsync", journalCfg.fsync);
+        journalCfg.snapshotIntervalMinutes = (long) dbl(journal, "snapshot-interval-minutes", journalCfg.snapshotIntervalMinutes);
+        journalCfg.snapshotAfterMb = (long) dbl(journal, "snapshot-after-mb", journalCfg.snapshotAfterMb);
+        Map<String, Object> writeBehind = (Map<String, Object>) storage.getOrDefault("write-behind", Map.of());
+        PluginConfig.WriteBehindConfig wbCfg = pc.storage.writeBehind;
+        wbCfg.enabled = bool(writeBehind, "enabled", wbCfg.enabled);
+        wbCfg.flushIntervalMs = (long) dbl(writeBehind, "flush-interval-ms", wbCfg.flushIntervalMs);
+        wbCfg.maxDelayMs = (long) dbl(writeBehind, "max-delay-ms", wbCfg.maxDelayMs);
+        pc.storage.loadThreads = (int) dbl(storage, "load-threads", pc.storage.loadThreads);
+        pc.storage.ioThreads = (int) dbl(storage, "io-threads", pc.storage.ioThreads);
+        pc.storage.chatMemoryLines = (int) dbl(storage, "chat-memory-lines", pc.storage.chatMemoryLines);
+        pc.storage.codec = get(storage, "codec", pc.storage.codec);
+        Map<String, Object> lazyLoad = (Map<String, Object>) storage.getOrDefault("lazy-load", Map.of());
+        PluginConfig.LazyLoadConfig llCfg = pc.storage.lazyLoad;
+        llCfg.enabled = bool(lazyLoad, "enabled", llCfg.enabled);
+        llCfg.closedCacheSize = (int) dbl(lazyLoad, "closed-cache-size", llCfg.closedCacheSize);
+        Map<String, Object> chatQueue = (Map<String, Object>) storage.getOrDefault("chat-queue", Map.of());
+        PluginConfig.ChatQueueConfig cqCfg = pc.storage.chatQueue;
+        cqCfg.capacity = (int) dbl(chatQueue, "capacity", cqCfg.capacity);
+        cqCfg.overflow = get(chatQueue, "overflow", cqCfg.overflow);
+        cqCfg.maxBlockMs = (long) dbl(chatQueue, "max-block-ms", cqCfg.maxBlockMs);
+        cqCfg.batchSize = (int) dbl(chatQueue, "batch-size", cqCfg.batchSize);
 
         // Dynamic report types
         Map<String, Object> rtypes = (Map<String, Object>) root.getOrDefault("report-types", Map.of());
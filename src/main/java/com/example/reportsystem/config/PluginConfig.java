@@ -73,6 +73,7 @@ public class PluginConfig {
     public Map<String, ReportTypeDef> reportTypes = new LinkedHashMap<>();
     public List<QuickAction> reportsActions = new ArrayList<>(QuickAction.defaultActions());
     public StorageConfig storage = new StorageConfig();
+    public ChatContextConfig chatContext = new ChatContextConfig();
 
     // Helpers
     public String msg(String key, String def) {
@@ -154,6 +155,9 @@ public class PluginConfig {
         /** Exponential decay constant for recency in milliseconds. */
         public double tauMs = 900_000d; // 15 minutes by default
 
+        /** Time-based factors are re-evaluated for all open reports this often (seconds). */
+        public long rescoreIntervalSeconds = 30;
+
         /** "typeId/categoryId" -> severity weight. */
         public Map<String, Double> severityByKey = new LinkedHashMap<>();
 
@@ -162,8 +166,71 @@ public class PluginConfig {
     }
 
     public static class StorageConfig {
-        public String mode = "filesystem"; // filesystem or mysql
+        public String mode = "filesystem"; // filesystem, journal or mysql
         public MysqlStorageConfig mysql = new MysqlStorageConfig();
+        public JournalStorageConfig journal = new JournalStorageConfig();
+        public WriteBehindConfig writeBehind = new WriteBehindConfig();
+        public LazyLoadConfig lazyLoad = new LazyLoadConfig();
+        public ChatQueueConfig chatQueue = new ChatQueueConfig();
+        /** Threads used to read/decode reports at startup; 0 = one per CPU core. */
+        public int loadThreads = 0;
+        /** Threads that run storage writes for commands and chat events (write-through saves). */
+        public int ioThreads = 2;
+        /** Newest chat lines kept in memory per report; older ones are read back from storage. 0 = keep all. */
+        public int chatMemoryLines = 200;
+        /** Document format for new writes: yaml or binary (either is read back). */
+        public String codec = "yaml";
+    }
+
+    /** Conversation on the reported player's server, attached to a new report next to their own lines. */
+    public static class ChatContextConfig {
+        public boolean enabled = true;
+        /** How far back (seconds) the attached conversation reaches; older server chat is not kept. */
+        public int windowSeconds = 60;
+        /** Most context lines attached to one report (the newest ones win). */
+        public int maxLines = 30;
+        /** Heap budget per server for the conversation buffer (KiB). */
+        public int memoryKbPerServer = 256;
+        /** Report types that get context, as lowercase "type/category" or "type"; empty = every type. */
+        public List<String> reportTypes = List.of("player/chat");
+    }
+
+    /** Watched players' chat is handed to a background appender instead of being stored on the chat event. */
+    public static class ChatQueueConfig {
+        /** Lines that may wait for the appender. */
+        public int capacity = 8192;
+        /** When the queue is full: drop-oldest (chat never waits) or block (the chat event waits for room). */
+        public String overflow = "drop-oldest";
+        /** overflow: block only - longest a chat event waits for room (capped at 1000) before the oldest line is dropped. */
+        public long maxBlockMs = 50;
+        /** Most lines the appender takes per pass; lines of the same report in a pass are stored together. */
+        public int batchSize = 256;
+    }
+
+    /** Open-first startup: closed reports stay on disk and are loaded on demand. */
+    public static class LazyLoadConfig {
+        public boolean enabled = false;
+        /** How many on-demand loaded closed reports are kept in memory. */
+        public int closedCacheSize = 500;
+    }
+
+    /** Coalescing background persistence; saves are batched per report id. */
+    public static class WriteBehindConfig {
+        public boolean enabled = true;
+        /** A dirty report is written once it has been quiet this long (ms). */
+        public long flushIntervalMs = 500;
+        /** Upper bound (ms) a mutation may wait in memory while its report keeps changing. */
+        public long maxDelayMs = 5000;
+    }
+
+    /** Write-ahead log + snapshot backend (storage.mode: journal). */
+    public static class JournalStorageConfig {
+        /** Force the log to disk before a save completes (concurrent saves share one fsync). */
+        public boolean fsync = true;
+        /** Fold the log into a fresh snapshot at least this often (minutes, 0 = only by size). */
+        public long snapshotIntervalMinutes = 60;
+        /** ...or as soon as the log has grown by this many MiB. */
+        public long snapshotAfterMb = 64;
     }
 
     public static class MysqlStorageConfig {
@@ -174,6 +241,28 @@ public class PluginConfig {
         public String password = "password";
         public String params = "?useSSL=false&characterEncoding=utf8";
         public String table = "rs_reports";
+        /** "blob" (one YAML row per report) or "normalized" (indexed columns + chat table). */
+        public String schema = "blob";
+        public MysqlPoolConfig pool = new MysqlPoolConfig();
+    }
+
+    /** Built-in JDBC connection pool used by the MySQL backend. */
+    public static class MysqlPoolConfig {
+        public int maximumPoolSize = 4;
+        public int minimumIdle = 1;
+        /** How long a save waits for a free connection before failing (ms). */
+        public long connectionTimeoutMs = 10_000;
+        /** Idle connections above minimumIdle are closed after this long (ms, 0 = never). */
+        public long idleTimeoutMs = 600_000;
+        /** Connections are retired after this age (ms, 0 = never); keep below MySQL wait_timeout. */
+        public long maxLifetimeMs = 1_800_000;
+        /** Timeout for the isValid() health check on idle connections (ms). */
+        public long validationTimeoutMs = 3_000;
+        // Connector/J statement cache: lets the upsert reuse a server-side prepared statement
+        public boolean cachePrepStmts = true;
+        public boolean useServerPrepStmts = true;
+        public int prepStmtCacheSize = 64;
+        public int prepStmtCacheSqlLimit = 2048;
     }
 
     /* -------------------- minimal loader stubs -------------------- */
@@ -0,0 +1,165 @@
+package com.example.reportsystem.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Append-only chat evidence of a report, stored in fixed-size chunks.
+ *
+ * Appends write into the last chunk (or start a new one) and then publish the new size; a full
+ * chunk is never touched again, so growing only copies the small chunk table, never the lines.
+ * Reads take no lock: an element below a published size is never modified afterwards.
+ *
+ * {@link #freeze()} captures the current prefix in O(1): the frozen log shares the chunks and
+ * simply never looks past the size it captured, so it stays consistent while the live log grows.
+ *
+ * Older lines can be dropped from memory with {@link #spill(int)} once they are in storage.
+ * {@link #size()} still counts them, so this is deliberately not a {@link List}: lines are read
+ * through {@link #view(int, int)}, which refuses ranges below {@link #spilled()}, or
+ * {@link #inMemory()}. Callers page spilled lines back from storage.
+ *
+ * The log also counts its {@link ChatMessage#context} lines, so the evidence proper is known
+ * without reading lines that may have been spilled.
+ */
+public final class ChatLog {
+
+    private static final int CHUNK_BITS = 6;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final ChatMessage[][] NO_CHUNKS = new ChatMessage[0][];
+
+    /** chunks[0] holds lines [base, base + CHUNK_SIZE) */
+    private volatile ChatMessage[][] chunks;
+    private volatile int size;
+    private volatile int contextLines;
+    /** lines dropped from memory; always a multiple of CHUNK_SIZE */
+    private final int base;
+    private final boolean frozen;
+
+    public ChatLog() {
+        this(NO_CHUNKS, 0, 0, 0, false);
+    }
+
+    public ChatLog(Collection<? extends ChatMessage> lines) {
+        this();
+        addAll(lines);
+    }
+
+    private ChatLog(ChatMessage[][] chunks, int size, int contextLines, int base, boolean frozen) {
+        this.chunks = chunks;
+        this.size = size;
+        this.contextLines = contextLines;
+        this.base = base;
+        this.frozen = frozen;
+    }
+
+    /** Total lines, including spilled ones. */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Lines flagged as {@link ChatMessage#context}, spilled ones included. */
+    public int contextLines() {
+        return contextLines;
+    }
+
+    /** Lines before this index are only in storage. */
+    public int spilled() {
+        return base;
+    }
+
+    /**
+     * Read-only view of lines {@code [from, to)}, sharing the chunks. Fails with
+     * {@link IllegalStateException} if part of the range was spilled to storage.
+     */
+    public List<ChatMessage> view(int from, int to) {
+        int n = size; // read size before the chunk table: the table is published first
+        ChatMessage[][] table = chunks;
+        Objects.checkFromToIndex(from, to, n);
+        if (from < base) {
+            throw new IllegalStateException("chat lines " + from + ".." + base + " were spilled to storage");
+        }
+        return new Lines(table, from - base, to - from);
+    }
+
+    /** The lines still held in memory, {@code [spilled(), size())}. */
+    public List<ChatMessage> inMemory() {
+        return view(base, size);
+    }
+
+    public synchronized void add(ChatMessage msg) {
+        if (frozen) throw new UnsupportedOperationException("frozen chat log is read-only");
+        int n = size;
+        int chunk = (n - base) >>> CHUNK_BITS;
+        ChatMessage[][] table = chunks;
+        if (chunk == table.length) {
+            table = Arrays.copyOf(table, Math.max(4, table.length * 2));
+            chunks = table;
+        }
+        if (table[chunk] == null) {
+            table[chunk] = new ChatMessage[CHUNK_SIZE];
+        }
+        table[chunk][(n - base) & CHUNK_MASK] = msg;
+        if (msg.context) contextLines++;
+        size = n + 1;
+    }
+
+    public synchronized void addAll(Collection<? extends ChatMessage> lines) {
+        for (ChatMessage line : lines) add(line);
+    }
+
+    /** Immutable log of the lines appended so far. */
+    public synchronized ChatLog freeze() {
+        if (frozen) return this;
+        return new ChatLog(chunks, size, contextLines, base, true);
+    }
+
+    /**
+     * A live log without the whole chunks below line {@code keepFrom}, or this log if none can be
+     * dropped. The result takes over appends; the caller swaps it in under the report's monitor.
+     * Frozen logs keep their own chunk table, so they are unaffected.
+     */
+    public synchronized ChatLog spill(int keepFrom) {
+        if (frozen) throw new UnsupportedOperationException("frozen chat log is read-only");
+        int n = size;
+        int cut = Math.min(keepFrom, n) & ~CHUNK_MASK;
+        if (cut <= base) return this;
+        int drop = (cut - base) >>> CHUNK_BITS;
+        ChatMessage[][] table = chunks;
+        ChatMessage[][] kept = Arrays.copyOfRange(table, drop, Math.max(drop + 4, table.length));
+        return new ChatLog(kept, n, contextLines, cut, false);
+    }
+
+    /** Lines {@code [offset, offset + length)} of a chunk table, counted from its base. */
+    private static final class Lines extends AbstractList<ChatMessage> implements RandomAccess {
+        private final ChatMessage[][] table;
+        private final int offset;
+        private final int length;
+
+        Lines(ChatMessage[][] table, int offset, int length) {
+            this.table = table;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public ChatMessage get(int index) {
+            Objects.checkIndex(index, length);
+            int at = offset + index;
+            return table[at >>> CHUNK_BITS][at & CHUNK_MASK];
+        }
+
+        @Override
+        public int size() {
+            return length;
+        }
+    }
+}
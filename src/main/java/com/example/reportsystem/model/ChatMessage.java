@@ -5,6 +5,8 @@ public class ChatMessage {
     public String player;
     public String server;
     public String message;
+    /** Surrounding conversation attached to a report, not something the reported player said. */
+    public boolean context;
 
     public ChatMessage() {}
 
@@ -15,4 +17,14 @@ public class ChatMessage {
         this.server = server;
         this.message = message;
     }
-}
\ No newline at end of file
+
+    public ChatMessage(long time, String player, String server, String message, boolean context) {
+        this(time, player, server, message);
+        this.context = context;
+    }
+
+    /** This line as context; the chat buffers share instances, so this returns a copy. */
+    public ChatMessage asContext() {
+        return context ? this : new ChatMessage(time, player, server, message, true);
+    }
+}
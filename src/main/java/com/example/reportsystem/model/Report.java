@@ -1,8 +1,12 @@
 package com.example.reportsystem.model;
 
-import java.util.ArrayList;
-import java.util.List;
-
+/**
+ * Live report record, owned by the report manager.
+ *
+ * Fields are only changed by the manager while holding this report's monitor, followed by
+ * {@link #publish()}. Code that reads several fields, or the chat, from another thread should
+ * use {@link #snapshot()} instead of the fields.
+ */
 public class Report {
     public long id;
     public String reporter;
@@ -22,8 +26,16 @@ public class Report {
     /** where the report was filed from (proxy server name) */
     public String sourceServer = null;
 
+    /** Last activity (filed, stacked, chat line, reopened); runtime only, not persisted. 0 = timestamp */
+    public long lastUpdate;
+
+    /** First chat line of a failed append, re-sent by the next one; runtime only. -1 = all stored */
+    public int chatUnsaved = -1;
+
     /** Chat messages captured for chat reports */
-    public List<ChatMessage> chat = new ArrayList<>();
+    public ChatLog chat = new ChatLog();
+
+    private volatile ReportSnapshot snapshot;
 
     public Report() {}
 
@@ -41,4 +53,23 @@ public class Report {
     }
 
     public boolean isOpen() { return status == ReportStatus.OPEN; }
+
+    /** Latest published snapshot; reports that were never published (e.g. just loaded) publish one now. */
+    public ReportSnapshot snapshot() {
+        ReportSnapshot s = snapshot;
+        if (s != null) return s;
+        synchronized (this) {
+            return snapshot != null ? snapshot : publish();
+        }
+    }
+
+    /** Publish the current field values as the next snapshot. Call while holding this report's monitor. */
+    public ReportSnapshot publish() {
+        ReportSnapshot prev = snapshot;
+        ReportSnapshot s = new ReportSnapshot(prev == null ? 1 : prev.version() + 1, id, reporter, reported,
+                typeId, typeDisplay, categoryId, categoryDisplay, reason, timestamp, count, status,
+                assignee, sourceServer, lastUpdate > 0 ? lastUpdate : timestamp, chat == null ? new ChatLog() : chat.freeze());
+        snapshot = s;
+        return s;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.example.reportsystem.model;
+
+/**
+ * Immutable view of a {@link Report} as of one published version.
+ *
+ * The live report is only mutated by the manager under the report's monitor, which publishes a
+ * new snapshot after each change; readers (commands, web export, scoring) take the current
+ * snapshot without locking and see every field plus the chat from the same version.
+ */
+public record ReportSnapshot(
+        long version,
+        long id,
+        String reporter,
+        String reported,
+        String typeId,
+        String typeDisplay,
+        String categoryId,
+        String categoryDisplay,
+        String reason,
+        long timestamp,
+        int count,
+        ReportStatus status,
+        String assignee,
+        String sourceServer,
+        long lastUpdate,
+        ChatLog chat
+) {
+    public boolean isOpen() { return status == ReportStatus.OPEN; }
+
+    /** Detached {@link Report} with these values, e.g. for the storage layer; chat is shared read-only. */
+    public Report toReport(boolean withChat) {
+        Report r = new Report();
+        r.id = id;
+        r.reporter = reporter;
+        r.reported = reported;
+        r.typeId = typeId;
+        r.typeDisplay = typeDisplay;
+        r.categoryId = categoryId;
+        r.categoryDisplay = categoryDisplay;
+        r.reason = reason;
+        r.timestamp = timestamp;
+        r.count = count;
+        r.status = status;
+        r.assignee = assignee;
+        r.sourceServer = sourceServer;
+        r.chat = withChat ? chat : new ChatLog();
+        return r;
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.reportsystem.service;
+
+import com.example.reportsystem.config.PluginConfig;
+import com.example.reportsystem.model.ChatMessage;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hands chat lines of watched players from the chat event to the report store.
+ *
+ * The event thread only puts (report id, line) pairs into a bounded queue; one background
+ * appender drains up to {@code batchSize} of them at a time, groups them per report and appends
+ * each group with a single {@link ReportManager#appendChat(Long, List)} (one publish, one save).
+ *
+ * When the queue is full the configured overflow policy applies: {@code drop-oldest} discards
+ * the oldest waiting line so chat never waits, {@code block} makes the chat event wait for room,
+ * but never longer than {@code max-block-ms} (at most {@link #MAX_BLOCK_MS}); after that the
+ * oldest line is dropped after all. Velocity fires chat events on its event threads, so a long
+ * wait would stall chat for everyone. Dropped lines are counted; the rolling buffer still has
+ * them for reports filed later.
+ *
+ * A report whose save throws does not stop the rest of the batch: each report's group is stored
+ * on its own and a failure is logged for that report only.
+ */
+final class ChatIngestQueue {
+
+    /** Upper bound for {@code max-block-ms}, whatever the config says. */
+    static final long MAX_BLOCK_MS = 1000L;
+
+    private record Line(long reportId, ChatMessage msg) {}
+
+    private final ReportManager mgr;
+    private final Logger log;
+    private final ArrayBlockingQueue<Line> queue;
+    private final int batchSize;
+    private final Thread appender;
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private volatile boolean block;
+    private volatile long maxBlockMs;
+    private volatile boolean closed;
+
+    ChatIngestQueue(ReportManager mgr, Logger log, PluginConfig.ChatQueueConfig cfg) {
+        this.mgr = mgr;
+        this.log = log;
+        this.queue = new ArrayBlockingQueue<>(Math.max(16, cfg.capacity));
+        this.batchSize = Math.max(1, cfg.batchSize);
+        setConfig(cfg);
+        this.appender = new Thread(this::run, "ReportSystem-ChatQueue");
+        appender.setDaemon(true);
+        appender.start();
+    }
+
+    /** Only the overflow policy follows a reload; capacity and batch size are fixed at startup. */
+    void setConfig(PluginConfig.ChatQueueConfig cfg) {
+        this.block = cfg != null && "block".equalsIgnoreCase(cfg.overflow);
+        this.maxBlockMs = cfg == null ? 0L : Math.max(0L, Math.min(MAX_BLOCK_MS, cfg.maxBlockMs));
+    }
+
+    void offer(long reportId, ChatMessage msg) {
+        Line line = new Line(reportId, msg);
+        if (closed) { // late line during shutdown: write through
+            mgr.appendChat(reportId, msg);
+            return;
+        }
+        boolean placed = false;
+        if (block) {
+            try {
+                placed = queue.offer(line, maxBlockMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                dropped.increment();
+                return;
+            }
+        }
+        if (!placed) {
+            while (!queue.offer(line)) {
+                if (queue.poll() != null) dropped.increment();
+            }
+        }
+        queued.increment();
+    }
+
+    /** Lines accepted since startup. */
+    long queued() {
+        return queued.sum();
+    }
+
+    /** Lines discarded because the queue was full. */
+    long dropped() {
+        return dropped.sum();
+    }
+
+    /** Appender passes that stored at least one line. */
+    long batches() {
+        return batches.sum();
+    }
+
+    /** Lines waiting for the appender right now. */
+    int backlog() {
+        return queue.size();
+    }
+
+    /** Stop the appender and store whatever is still queued. */
+    void close() {
+        closed = true;
+        try {
+            appender.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Line> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) store(rest);
+    }
+
+    private void run() {
+        List<Line> batch = new ArrayList<>(batchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Line first = queue.poll(250, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                store(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Failed to store {} queued chat line(s): {}", batch.size(), e.toString());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void store(List<Line> batch) {
+        Map<Long, List<ChatMessage>> byReport = new LinkedHashMap<>();
+        for (Line line : batch) {
+            byReport.computeIfAbsent(line.reportId(), k -> new ArrayList<>()).add(line.msg());
+        }
+        byReport.forEach((id, lines) -> {
+            try {
+                mgr.appendChat(id, lines);
+            } catch (RuntimeException e) {
+                log.warn("Failed to store {} queued chat line(s) for report #{}: {}", lines.size(), id, e.toString());
+            }
+        });
+        batches.increment();
+    }
+}
@@ -4,8 +4,11 @@ import com.example.reportsystem.ReportSystem;
 import com.example.reportsystem.config.PluginConfig;
 import com.example.reportsystem.model.ChatMessage;
 import com.example.reportsystem.model.Report;
+import com.example.reportsystem.model.ReportType;
 import com.example.reportsystem.util.Text;
+import com.example.reportsystem.util.Interner;
 import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.DisconnectEvent;
 import com.velocitypowered.api.event.connection.PostLoginEvent;
 import com.velocitypowered.api.event.player.PlayerChatEvent;
 import com.velocitypowered.api.proxy.Player;
@@ -13,55 +16,82 @@ import com.velocitypowered.api.proxy.Player;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedDeque;
 
 /**
  * Captures chat:
  *  1) Rolling buffer for ALL players (so first report gets recent lines).
- *  2) Live-append for players under "watch" (anyone with an open report).
+ *  2) Live-append for players under "watch" (anyone with an open report; see
+ *     {@link ReportManager#isWatched}, kept up to date by the manager's own transitions).
+ *
+ * A player's buffer is dropped once its newest line is older than the buffer window: right away
+ * on disconnect if it is already stale, otherwise by the periodic sweep. Someone reported shortly
+ * after leaving still has their last two minutes of chat on file.
+ *
+ * Everything said on each backend server also goes into a per-server ring (same ChatMessage
+ * instances, bounded by chat-context.memory-kb-per-server), so a new report can carry the
+ * conversation around the reported player, not just their own lines.
  */
 public class ChatLogService {
 
     // Rolling buffer defaults
     private static final int BUFFER_SECONDS = 120;        // last ~2 minutes
     private static final int MAX_LINES_PER_PLAYER = 100;  // safety cap
+    private static final int SWEEP_SECONDS = 30;          // idle-buffer sweep interval
 
     private final ReportSystem plugin;
     private final ReportManager mgr;
     private volatile PluginConfig config;
 
-    /** players currently being "watched" to live-append into their open reports */
-    private final Set<String> watchedPlayers = ConcurrentHashMap.newKeySet();
+    /** per-player ring buffer of recent chat (lowercased key -> ring of ChatMessage) */
+    private final Map<String, ChatRing> recentByPlayer = new ConcurrentHashMap<>();
 
-    /** per-player ring buffer of recent chat (lowercased key -> deque of ChatMessage) */
-    private final Map<String, Deque<ChatMessage>> recentByPlayer = new ConcurrentHashMap<>();
+    /** per-server ring of all recent chat (server name -> ring), for conversation context */
+    private final Map<String, ChatRing> recentByServer = new ConcurrentHashMap<>();
+
+    /** watched players' lines on their way into the reports (stored off the chat event) */
+    private final ChatIngestQueue ingest;
 
     public ChatLogService(ReportSystem plugin, ReportManager mgr, PluginConfig config) {
         this.plugin = plugin;
         this.mgr = mgr;
         this.config = config;
+        this.ingest = new ChatIngestQueue(mgr, plugin.logger(), chatQueueConfig(config));
 
         // Let the manager pull recent lines on new-report creation
         this.mgr.setChatLogService(this);
-    }
 
-    public void setConfig(PluginConfig cfg) { this.config = cfg; }
+        plugin.proxy().getScheduler().buildTask(plugin, this::sweepIdleBuffers)
+                .delay(Duration.ofSeconds(SWEEP_SECONDS))
+                .repeat(Duration.ofSeconds(SWEEP_SECONDS))
+                .schedule();
+    }
 
-    /** Rebuilds the watch set from open reports. Call after filing/stacking. */
-    public void refreshWatchList() {
-        watchedPlayers.clear();
-        for (Report r : mgr.getOpenReportsDescending()) {
-            if (r.reported != null && !r.reported.isBlank()) {
-                watchedPlayers.add(r.reported.toLowerCase(Locale.ROOT));
-            }
+    public void setConfig(PluginConfig cfg) {
+        PluginConfig.ChatContextConfig before = contextConfig(this.config);
+        this.config = cfg;
+        ingest.setConfig(chatQueueConfig(cfg));
+        PluginConfig.ChatContextConfig after = contextConfig(cfg);
+        if (after == null || before == null || before.memoryKbPerServer != after.memoryKbPerServer) {
+            recentByServer.clear(); // rings are sized for the old budget; refill from here on
         }
     }
 
+    private static PluginConfig.ChatContextConfig contextConfig(PluginConfig cfg) {
+        PluginConfig.ChatContextConfig cc = cfg == null ? null : cfg.chatContext;
+        return cc == null || !cc.enabled ? null : cc;
+    }
+
+    private static PluginConfig.ChatQueueConfig chatQueueConfig(PluginConfig cfg) {
+        return cfg == null || cfg.storage == null ? new PluginConfig.ChatQueueConfig() : cfg.storage.chatQueue;
+    }
+
+    /** Stores chat still waiting in the queue; call before the report manager shuts down. */
+    public void shutdown() {
+        ingest.close();
+    }
+
     @Subscribe
     public void onLogin(PostLoginEvent e) {
-        // Refresh on login so immediate chat from targets is captured going forward
-        refreshWatchList();
-
         Player player = e.getPlayer();
         PluginConfig snapshot = this.config;
         if (snapshot == null) return;
@@ -84,24 +114,33 @@ public class ChatLogService {
         builder.schedule();
     }
 
+    @Subscribe
+    public void onDisconnect(DisconnectEvent e) {
+        String key = key(e.getPlayer().getUsername());
+        ChatRing ring = recentByPlayer.get(key);
+        if (ring != null && isIdle(ring, System.currentTimeMillis())) {
+            recentByPlayer.remove(key, ring);
+        }
+    }
+
     @Subscribe
     public void onChat(PlayerChatEvent e) {
         Player p = e.getPlayer();
         String name = p.getUsername();
-        String lowered = name.toLowerCase(Locale.ROOT);
         String server = p.getCurrentServer().map(s -> s.getServerInfo().getName()).orElse("UNKNOWN");
         long now = System.currentTimeMillis();
 
         // Ensure ChatMessage(server) is truly a server name (not the username)
-        ChatMessage msg = new ChatMessage(now, name, server, e.getMessage());
+        ChatMessage msg = new ChatMessage(now, Interner.intern(name), Interner.intern(server), e.getMessage());
 
-        // 1) ALWAYS record in rolling buffer
+        // 1) ALWAYS record in rolling buffer (and the server's conversation buffer)
         recordToBuffer(name, msg, now);
+        recordToServer(msg, now);
 
-        // 2) If the player is being watched, live-append to their open reports
-        if (watchedPlayers.contains(lowered)) {
+        // 2) If the player is being watched, queue the line for their open reports
+        if (mgr.isWatched(name)) {
             for (Report r : mgr.getOpenReportsFor(name)) {
-                mgr.appendChat(r.id, msg);
+                ingest.offer(r.id, msg);
             }
         }
     }
@@ -110,49 +149,156 @@ public class ChatLogService {
 
     private void recordToBuffer(String playerName, ChatMessage msg, long now) {
         String key = key(playerName);
-        Deque<ChatMessage> dq = recentByPlayer.computeIfAbsent(key, k -> new ConcurrentLinkedDeque<>());
-        dq.addLast(msg);
+        ChatRing ring = recentByPlayer.computeIfAbsent(key, k -> new ChatRing(MAX_LINES_PER_PLAYER));
+        // the ring drops the oldest line once full, and anything older than the buffer window
+        ring.add(msg, now - BUFFER_SECONDS * 1000L);
+        if (recentByPlayer.get(key) != ring) {
+            // swept between lookup and append; the ring holds a fresh line again, so put it back
+            recentByPlayer.putIfAbsent(key, ring);
+        }
+    }
 
-        // prune by size
-        while (dq.size() > MAX_LINES_PER_PLAYER) {
-            dq.pollFirst();
+    private void recordToServer(ChatMessage msg, long now) {
+        PluginConfig.ChatContextConfig cc = contextConfig(this.config);
+        if (cc == null || "UNKNOWN".equals(msg.server)) return; // no server, no shared conversation
+        ChatRing ring = recentByServer.computeIfAbsent(msg.server, k -> serverRing(cc));
+        ring.add(msg, now - contextWindowMs(cc));
+        if (recentByServer.get(msg.server) != ring) {
+            recentByServer.putIfAbsent(msg.server, ring);
         }
-        // prune by age
-        long cutoff = now - BUFFER_SECONDS * 1000L;
-        while (true) {
-            ChatMessage head = dq.peekFirst();
-            if (head == null) break;
-            if (head.time >= cutoff) break;
-            dq.pollFirst();
+    }
+
+    /** Capacity for the shortest plausible lines; the byte budget is what normally bounds it. */
+    private static ChatRing serverRing(PluginConfig.ChatContextConfig cc) {
+        long budget = Math.max(16, cc.memoryKbPerServer) * 1024L;
+        int capacity = (int) Math.min(1 << 16, Math.max(64, budget / 80));
+        return new ChatRing(capacity, budget);
+    }
+
+    private static long contextWindowMs(PluginConfig.ChatContextConfig cc) {
+        return Math.max(1, cc.windowSeconds) * 1000L;
+    }
+
+    /** Drops buffers with nothing left inside the window (players who went quiet or left). */
+    private void sweepIdleBuffers() {
+        long now = System.currentTimeMillis();
+        recentByPlayer.forEach((key, ring) -> {
+            if (isIdle(ring, now)) recentByPlayer.remove(key, ring);
+        });
+        PluginConfig.ChatContextConfig cc = contextConfig(this.config);
+        long serverCutoff = cc == null ? Long.MAX_VALUE : now - contextWindowMs(cc);
+        recentByServer.forEach((server, ring) -> {
+            if (ring.lastStamp() < serverCutoff) recentByServer.remove(server, ring);
+        });
+    }
+
+    private static boolean isIdle(ChatRing ring, long now) {
+        return ring.lastStamp() < now - BUFFER_SECONDS * 1000L;
+    }
+
+    /** Rolling buffer footprint: players buffered, lines held and estimated bytes. */
+    public BufferStats bufferStats() {
+        return footprint(recentByPlayer);
+    }
+
+    /** Conversation buffer footprint: servers buffered, lines held and estimated bytes. */
+    public BufferStats contextStats() {
+        return footprint(recentByServer);
+    }
+
+    private static BufferStats footprint(Map<String, ChatRing> rings) {
+        int keys = 0, lines = 0;
+        long bytes = 0;
+        for (var entry : rings.entrySet()) {
+            ChatRing ring = entry.getValue();
+            keys++;
+            lines += ring.size();
+            // map node + key + the ring itself
+            bytes += 32 + 40 + entry.getKey().length() + ring.estimateBytes();
         }
+        return new BufferStats(keys, lines, bytes);
+    }
+
+    /** {@code keys} is players for the rolling buffer, servers for the conversation buffer. */
+    public record BufferStats(int keys, int lines, long bytes) {}
+
+    /** Chat queue counters: lines accepted, dropped on overflow, appender passes, waiting now. */
+    public QueueStats queueStats() {
+        return new QueueStats(ingest.queued(), ingest.dropped(), ingest.batches(), ingest.backlog());
     }
 
+    public record QueueStats(long queued, long dropped, long batches, int backlog) {}
+
     private static String key(String s) {
         return s == null ? "" : s.toLowerCase(Locale.ROOT);
     }
 
+    /**
+     * Evidence for a new report against this player: their own lines within 'windowMs', merged
+     * in time order with the conversation on their server within chat-context.window-seconds if
+     * chat-context.report-types covers this report type. Conversation lines are flagged
+     * {@link ChatMessage#context} so they stay apart from the evidence once stored.
+     */
+    public List<ChatMessage> evidenceFor(String playerName, long windowMs, ReportType type) {
+        List<ChatMessage> own = recentFor(playerName, windowMs);
+        List<ChatMessage> context = contextFor(playerName, type);
+        if (context.isEmpty()) return own;
+        // the player's own lines on that server are in both lists as the same instances
+        Set<ChatMessage> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        seen.addAll(own);
+        List<ChatMessage> out = new ArrayList<>(own.size() + context.size());
+        int i = 0;
+        for (ChatMessage m : context) {
+            if (seen.contains(m)) continue;
+            while (i < own.size() && own.get(i).time <= m.time) out.add(own.get(i++));
+            out.add(m.asContext());
+        }
+        while (i < own.size()) out.add(own.get(i++));
+        return out;
+    }
+
+    /** The newest chat-context.max-lines lines said on this player's server within the window. */
+    private List<ChatMessage> contextFor(String playerName, ReportType type) {
+        PluginConfig.ChatContextConfig cc = contextConfig(this.config);
+        if (cc == null || cc.maxLines <= 0 || playerName == null || playerName.isBlank()) return List.of();
+        if (!wantsContext(cc, type)) return List.of();
+        String server = serverOf(playerName);
+        ChatRing ring = server == null ? null : recentByServer.get(server);
+        if (ring == null) return List.of();
+        return ring.since(System.currentTimeMillis() - contextWindowMs(cc), cc.maxLines);
+    }
+
+    private static boolean wantsContext(PluginConfig.ChatContextConfig cc, ReportType type) {
+        if (cc.reportTypes == null || cc.reportTypes.isEmpty()) return true;
+        if (type == null) return false;
+        String typeId = key(type.typeId);
+        return cc.reportTypes.contains(typeId) || cc.reportTypes.contains(typeId + "/" + key(type.categoryId));
+    }
+
+    /** Where the player is now, or where they last chatted if they are offline. */
+    private String serverOf(String playerName) {
+        Optional<String> online = plugin.proxy().getPlayer(playerName)
+                .flatMap(Player::getCurrentServer)
+                .map(s -> s.getServerInfo().getName());
+        if (online.isPresent()) return online.get();
+        ChatRing ring = recentByPlayer.get(key(playerName));
+        ChatMessage last = ring == null ? null : ring.newest();
+        return last == null ? null : last.server;
+    }
+
     /** Recent messages for this player within 'windowMs' (oldest→newest). */
     public List<ChatMessage> recentFor(String playerName, long windowMs) {
         if (playerName == null || playerName.isBlank()) return List.of();
-        Deque<ChatMessage> dq = recentByPlayer.get(key(playerName));
-        if (dq == null || dq.isEmpty()) return List.of();
-        long cutoff = System.currentTimeMillis() - Math.max(1_000L, windowMs);
-
-        List<ChatMessage> out = new ArrayList<>(dq.size());
-        for (ChatMessage m : dq) {
-            if (m.time >= cutoff) out.add(m);
-        }
-        out.sort(Comparator.comparingLong(m -> m.time));
-        return out;
+        ChatRing ring = recentByPlayer.get(key(playerName));
+        if (ring == null) return List.of();
+        // already in time order: the ring finds the window start by binary search
+        return ring.since(System.currentTimeMillis() - Math.max(1_000L, windowMs));
     }
 
     private void sendStaffSummary(Player player, PluginConfig snapshot) {
-        List<Report> open = mgr.getOpenReportsDescending();
-        int totalOpen = open.size();
+        int totalOpen = mgr.countOpenReports();
         String name = player.getUsername();
-        int mine = (int) open.stream()
-                .filter(r -> r.assignee != null && r.assignee.equalsIgnoreCase(name))
-                .count();
+        int mine = mgr.countOpenReportsAssignedTo(name);
         int closed = mgr.countClosedReports();
 
         String openLabel = snapshot.msg("summary-open-label", "%count% open").replace("%count%", String.valueOf(totalOpen));
@@ -0,0 +1,147 @@
+package com.example.reportsystem.service;
+
+import com.example.reportsystem.model.ChatMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-capacity ring of recent chat (one player's, or everything said on one server), oldest
+ * to newest.
+ *
+ * Lines are numbered by a running sequence; line {@code s} lives in slot {@code s % slots}, with
+ * one slot more than the capacity. The writer fills the slot and then publishes the new
+ * {@link #tail}, so a reader that sees a tail also sees every line below it. The spare slot is the
+ * one being written: it holds the line that fell out of the window, never a line a reader can
+ * still return. Dropping a line (because the ring is full, the line aged out or the ring is over
+ * its byte budget) only moves {@link #head} and clears the slot; all are amortized O(1).
+ *
+ * Readers take no lock. They binary-search the window start on the stamps (append-ordered, so
+ * already sorted) and copy forward, then re-read the tail and discard every line whose slot the
+ * writer may have reused meanwhile (including the one it may be writing right now). Appends are
+ * serialized on the ring's monitor; for a player's ring it is uncontended in practice, a player
+ * only sends one chat packet at a time.
+ *
+ * The ring holds the same ChatMessage instances as every other ring the line went into, so a
+ * line costs one reference and one stamp per extra ring.
+ */
+final class ChatRing {
+
+    private final int capacity;
+    private final ChatMessage[] slots;
+    /** append time of each slot, clamped to be non-decreasing so it can be binary-searched */
+    private final long[] stamps;
+    private final long maxBytes;
+    private volatile long head;
+    private volatile long tail;
+    /** estimated bytes of the lines in [head, tail); written under the monitor only */
+    private volatile long bytes;
+
+    ChatRing(int capacity) {
+        this(capacity, Long.MAX_VALUE);
+    }
+
+    ChatRing(int capacity, long maxBytes) {
+        this.capacity = Math.max(1, capacity);
+        this.slots = new ChatMessage[this.capacity + 1];
+        this.stamps = new long[slots.length];
+        this.maxBytes = maxBytes;
+    }
+
+    /** Appends {@code msg} and drops lines older than {@code cutoff} (and any beyond the budget). */
+    synchronized void add(ChatMessage msg, long cutoff) {
+        long t = tail;
+        long h = head;
+        long held = bytes;
+        if (t - h == capacity) { // full: the oldest line gives way
+            int s = (int) (h % slots.length);
+            held -= cost(slots[s]);
+            slots[s] = null;
+            h++;
+        }
+        int at = (int) (t % slots.length);
+        long prev = t == 0 ? Long.MIN_VALUE : stamps[(int) ((t - 1) % slots.length)];
+        slots[at] = msg;
+        stamps[at] = Math.max(prev, msg.time);
+        held += cost(msg);
+        tail = t + 1;
+        // release aged-out or over-budget lines now rather than when their slot is reused
+        while (h <= t && (stamps[(int) (h % slots.length)] < cutoff || held > maxBytes)) {
+            int s = (int) (h % slots.length);
+            held -= cost(slots[s]);
+            slots[s] = null;
+            h++;
+        }
+        head = h;
+        bytes = held;
+    }
+
+    /** Lines appended at or after {@code cutoff}, oldest first. */
+    List<ChatMessage> since(long cutoff) {
+        return since(cutoff, Integer.MAX_VALUE);
+    }
+
+    /** The newest {@code limit} lines appended at or after {@code cutoff}, oldest first. */
+    List<ChatMessage> since(long cutoff, int limit) {
+        long t = tail;
+        long h = Math.max(head, t - Math.min(capacity, Math.max(0, limit)));
+        long from = firstAtOrAfter(h, t, cutoff);
+        if (from >= t) return List.of();
+        ChatMessage[] copy = new ChatMessage[(int) (t - from)];
+        for (long s = from; s < t; s++) {
+            copy[(int) (s - from)] = slots[(int) (s % slots.length)];
+        }
+        // the slot of line s is rewritten by the append of line s + capacity + 1, which may be in
+        // progress once tail has reached that line: lines from tail - capacity on are intact
+        long valid = Math.max(from, tail - capacity);
+        if (valid >= t) return since(cutoff, limit); // lapped by the writer: every copied line is stale
+        List<ChatMessage> out = new ArrayList<>((int) (t - valid));
+        for (long s = valid; s < t; s++) {
+            ChatMessage m = copy[(int) (s - from)];
+            if (m != null && m.time >= cutoff) out.add(m);
+        }
+        return out;
+    }
+
+    /** Stamp of the newest line, or {@link Long#MIN_VALUE} if none was ever added. */
+    long lastStamp() {
+        long t = tail;
+        return t == 0 ? Long.MIN_VALUE : stamps[(int) ((t - 1) % slots.length)];
+    }
+
+    /** The newest line, or null if none is held. */
+    ChatMessage newest() {
+        long t = tail;
+        return t == 0 ? null : slots[(int) ((t - 1) % slots.length)];
+    }
+
+    /** Lines currently held (not yet dropped by size, age or budget). */
+    int size() {
+        long t = tail;
+        return (int) Math.max(0, t - Math.max(head, t - capacity));
+    }
+
+    /**
+     * Rough heap held by this ring: the two arrays plus each held line (ChatMessage object and its
+     * text, counted in full even when another ring holds it too). Player/server names are pooled
+     * and not counted.
+     */
+    long estimateBytes() {
+        return 32 + (16 + 4L * slots.length) + (16 + 8L * slots.length) + bytes;
+    }
+
+    private static long cost(ChatMessage m) {
+        return m == null ? 0 : 32 + (m.message == null ? 0 : 40 + m.message.length());
+    }
+
+    /** First sequence in {@code [from, to)} stamped at or after {@code cutoff}, or {@code to}. */
+    private long firstAtOrAfter(long from, long to, long cutoff) {
+        long lo = from, hi = to;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (stamps[(int) (mid % slots.length)] < cutoff) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
@@ -3,13 +3,14 @@ package com.example.reportsystem.service;
 import com.example.reportsystem.ReportSystem;
 import com.example.reportsystem.config.PluginConfig;
 import com.example.reportsystem.model.ChatMessage;
-import com.example.reportsystem.model.Report;
+import com.example.reportsystem.model.ReportSnapshot;
 import com.example.reportsystem.util.TimeUtil;
 
 import java.io.IOException;
 import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 
 public class HtmlExporter {
 
@@ -21,8 +22,9 @@ public class HtmlExporter {
         this.config = config;
     }
 
-    public Path export(Report r) throws IOException {
-        Path out = plugin.dataDir().resolve(config.htmlExportDir).resolve(String.valueOf(r.id)).resolve("index.html");
+    /** @param chat every chat line of the report (spilled ones included, see ReportManager#chatLines) */
+    public Path export(ReportSnapshot r, List<ChatMessage> chat) throws IOException {
+        Path out = plugin.dataDir().resolve(config.htmlExportDir).resolve(String.valueOf(r.id())).resolve("index.html");
         Files.createDirectories(out.getParent());
 
         try (Writer w = Files.newBufferedWriter(out)) {
@@ -42,6 +44,9 @@ public class HtmlExporter {
  .name{font-weight:600}
  .server{color:#9aa7b2;margin-left:0.5rem;font-size:0.9rem}
  .msg{display:block;margin-top:0.2rem;white-space:pre-wrap}
+ .context{opacity:0.6}
+ .context .msg{font-style:italic}
+ .tag{color:#7f8b96;margin-left:0.5rem;font-size:0.8rem}
  a{color:#7cc4ff}
 </style>
 </head>
@@ -56,31 +61,32 @@ public class HtmlExporter {
 </div>
 </body>
 </html>
-""".replace("%ID%", String.valueOf(r.id))
-    .replace("%TYPE%", r.typeDisplay)
-    .replace("%CAT%", r.categoryDisplay)
-    .replace("%REPORTED%", safe(r.reported))
-    .replace("%REPORTER%", safe(r.reporter))
-    .replace("%WHEN%", TimeUtil.formatDateTime(r.timestamp))
-    .replace("%COUNT%", String.valueOf(r.count))
-    .replace("%STATUS%", r.status.name())
-    .replace("%ASSIGNEE%", r.assignee == null ? "—" : safe(r.assignee))
-    .replace("%ROWS%", buildRows(r)));
+""".replace("%ID%", String.valueOf(r.id()))
+    .replace("%TYPE%", r.typeDisplay())
+    .replace("%CAT%", r.categoryDisplay())
+    .replace("%REPORTED%", safe(r.reported()))
+    .replace("%REPORTER%", safe(r.reporter()))
+    .replace("%WHEN%", TimeUtil.formatDateTime(r.timestamp()))
+    .replace("%COUNT%", String.valueOf(r.count()))
+    .replace("%STATUS%", r.status().name())
+    .replace("%ASSIGNEE%", r.assignee() == null ? "—" : safe(r.assignee()))
+    .replace("%ROWS%", buildRows(chat)));
         }
         return out;
     }
 
-    private String buildRows(Report r) {
-        if (r.chat == null || r.chat.isEmpty()) {
+    private String buildRows(List<ChatMessage> chat) {
+        if (chat.isEmpty()) {
             return "<div class=\"entry\"><span class=\"time\">—</span><span class=\"name\">(no messages)</span></div>";
         }
         StringBuilder sb = new StringBuilder();
-        for (ChatMessage m : r.chat) {
-            sb.append("<div class=\"entry\">")
+        for (ChatMessage m : chat) {
+            sb.append(m.context ? "<div class=\"entry context\">" : "<div class=\"entry\">")
               .append("<span class=\"time\">").append(TimeUtil.formatTime(m.time)).append("</span>")
               .append("<span class=\"name\">").append(safe(m.player)).append("</span>")
-              .append("<span class=\"server\">@ ").append(safe(m.server)).append("</span>")
-              .append("<span class=\"msg\">").append(safe(m.message)).append("</span>")
+              .append("<span class=\"server\">@ ").append(safe(m.server)).append("</span>");
+            if (m.context) sb.append("<span class=\"tag\">(context)</span>");
+            sb.append("<span class=\"msg\">").append(safe(m.message)).append("</span>")
               .append("</div>\n");
         }
         return sb.toString();
@@ -0,0 +1,198 @@
+package com.example.reportsystem.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Concurrent map from primitive {@code long} keys (report ids) to values.
+ *
+ * Keys are spread over a fixed set of segments, each an open-addressing table (linear probing,
+ * backward-shift deletion) guarded by its own monitor. An entry costs one slot in a long[] and
+ * one in an Object[], instead of a hash node plus a boxed Long as in ConcurrentHashMap.
+ * Values must not be null; an empty slot is one whose value is null.
+ *
+ * {@link #values()} and {@link #forEach} visit segments one at a time, so like
+ * ConcurrentHashMap iteration they are weakly consistent.
+ */
+public final class LongMap<V> {
+
+    /** Visitor for {@link #forEach}. */
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    private static final int SEGMENT_BITS = 4;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+
+    public LongMap() {
+        for (int i = 0; i < segments.length; i++) segments[i] = new Segment();
+    }
+
+    public V get(long key) {
+        return cast(segmentFor(key).get(key));
+    }
+
+    public boolean containsKey(long key) {
+        return segmentFor(key).get(key) != null;
+    }
+
+    /** @return the previous value, or null */
+    public V put(long key, V value) {
+        return cast(segmentFor(key).put(key, value, true));
+    }
+
+    /** @return the existing value (left in place), or null if {@code value} was inserted */
+    public V putIfAbsent(long key, V value) {
+        return cast(segmentFor(key).put(key, value, false));
+    }
+
+    /** @return the removed value, or null */
+    public V remove(long key) {
+        return cast(segmentFor(key).remove(key));
+    }
+
+    public int size() {
+        int n = 0;
+        for (Segment s : segments) n += s.size();
+        return n;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        for (Segment s : segments) s.clear();
+    }
+
+    /** Copy of the values, in no particular order. */
+    public List<V> values() {
+        List<V> out = new ArrayList<>(size());
+        forEach((k, v) -> out.add(v));
+        return out;
+    }
+
+    public void forEach(EntryConsumer<? super V> action) {
+        for (Segment s : segments) {
+            long[] keys;
+            Object[] vals;
+            synchronized (s) {
+                keys = Arrays.copyOf(s.keys, s.keys.length);
+                vals = Arrays.copyOf(s.vals, s.vals.length);
+            }
+            for (int i = 0; i < vals.length; i++) {
+                if (vals[i] != null) action.accept(keys[i], cast(vals[i]));
+            }
+        }
+    }
+
+    private Segment segmentFor(long key) {
+        return segments[(int) (mix(key) >>> (64 - SEGMENT_BITS))];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V cast(Object o) {
+        return (V) o;
+    }
+
+    /** 64-bit finalizer from MurmurHash3; sequential ids spread over segments and slots alike. */
+    private static long mix(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Segment {
+        long[] keys = new long[INITIAL_CAPACITY];
+        Object[] vals = new Object[INITIAL_CAPACITY];
+        int size;
+
+        private int slot(long key, int mask) {
+            return (int) mix(key) & mask;
+        }
+
+        synchronized Object get(long key) {
+            int mask = keys.length - 1;
+            for (int i = slot(key, mask); vals[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) return vals[i];
+            }
+            return null;
+        }
+
+        synchronized Object put(long key, Object value, boolean replace) {
+            if (value == null) throw new NullPointerException("value");
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            for (; vals[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    Object prev = vals[i];
+                    if (replace) vals[i] = value;
+                    return prev;
+                }
+            }
+            keys[i] = key;
+            vals[i] = value;
+            if (++size * 4 > keys.length * 3) resize(keys.length * 2);
+            return null;
+        }
+
+        synchronized Object remove(long key) {
+            int mask = keys.length - 1;
+            for (int i = slot(key, mask); vals[i] != null; i = (i + 1) & mask) {
+                if (keys[i] != key) continue;
+                Object prev = vals[i];
+                shiftBack(i, mask);
+                size--;
+                return prev;
+            }
+            return null;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized void clear() {
+            keys = new long[INITIAL_CAPACITY];
+            vals = new Object[INITIAL_CAPACITY];
+            size = 0;
+        }
+
+        /** Close the gap at {@code hole} by moving back entries whose probe run passes over it. */
+        private void shiftBack(int hole, int mask) {
+            for (int j = (hole + 1) & mask; vals[j] != null; j = (j + 1) & mask) {
+                int home = slot(keys[j], mask);
+                // entry j may move into the hole unless its home lies cyclically in (hole, j]
+                boolean stays = hole <= j ? (hole < home && home <= j) : (hole < home || home <= j);
+                if (stays) continue;
+                keys[hole] = keys[j];
+                vals[hole] = vals[j];
+                hole = j;
+            }
+            keys[hole] = 0L;
+            vals[hole] = null;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            Object[] oldVals = vals;
+            keys = new long[capacity];
+            vals = new Object[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < oldVals.length; i++) {
+                if (oldVals[i] == null) continue;
+                int j = slot(oldKeys[i], mask);
+                while (vals[j] != null) j = (j + 1) & mask;
+                keys[j] = oldKeys[i];
+                vals[j] = oldVals[i];
+            }
+        }
+    }
+}
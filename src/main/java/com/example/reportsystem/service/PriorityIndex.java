@@ -0,0 +1,259 @@
+package com.example.reportsystem.service;
+
+import com.example.reportsystem.model.Report;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * Open reports kept in priority order, updated as reports change instead of sorted per call.
+ *
+ * Time-dependent factors (recency decay, aging, SLA breach) are evaluated at the start of a
+ * coarse time bucket: every score in the index uses the same reference time, and the whole
+ * index is re-scored once when the bucket rolls over. Between roll-overs a mutation only
+ * re-scores the report it touched, and leaves the order alone when the score, tie-breaker and
+ * claim state come out unchanged (e.g. another chat line in the same bucket).
+ *
+ * Ranks live in red-black trees keyed by (score, tie, id), so a re-rank is an O(log n) remove and
+ * insert. Reading a page after a cursor is O(log n + page); a page by offset walks from whichever
+ * end is closer. The first read after a roll-over re-scores and re-sorts everything in
+ * O(n log n). A second tree holds only unassigned reports for "highest priority unclaimed".
+ *
+ * Pages hand out a {@link ReportPage.Cursor} so the next page resumes right after it. A cursor
+ * is a position in the order, not a snapshot: a report re-ranked between two reads can cross it
+ * and show up twice or not at all. A roll-over re-scores every report, so cursors carry the
+ * {@link #epoch} they were made in and a cursor from an earlier one falls back to the offset.
+ */
+public final class PriorityIndex {
+
+    /** How reports are ordered; supplied by {@link ReportManager} from the current config. */
+    public interface Ranking {
+        /** Score at reference time {@code at}; higher ranks first. */
+        double score(Report r, long at);
+
+        /** Tie-breaker after the score; higher ranks first. */
+        long tieKey(Report r);
+
+        /** Whether scores change with time alone (and so need re-scoring per bucket). */
+        boolean timeDependent();
+    }
+
+    private record Rank(long id, Report report, double score, long tie, boolean unassigned) {}
+
+    private static final Comparator<Rank> ORDER = (a, b) -> {
+        int c = Double.compare(b.score, a.score);
+        if (c != 0) return c;
+        c = Long.compare(b.tie, a.tie);
+        if (c != 0) return c;
+        return Long.compare(b.id, a.id);
+    };
+
+    private final Map<Long, Rank> byId = new HashMap<>();
+    private final NavigableSet<Rank> all = new TreeSet<>(ORDER);
+    private final NavigableSet<Rank> unassigned = new TreeSet<>(ORDER);
+    private Ranking ranking;
+    private long bucketMs;
+    /** Reference time every score in the index was computed at. */
+    private long bucketStart = Long.MIN_VALUE;
+    /** Bumped on every full re-score; cursors from an earlier epoch are not comparable. */
+    private long epoch;
+
+    public PriorityIndex(Ranking ranking, long bucketMs) {
+        this.ranking = ranking;
+        this.bucketMs = Math.max(1000L, bucketMs);
+    }
+
+    /** Swap the ranking (config reload); everything is re-scored on the next read. */
+    public synchronized void setRanking(Ranking ranking, long bucketMs) {
+        this.ranking = ranking;
+        this.bucketMs = Math.max(1000L, bucketMs);
+        this.bucketStart = Long.MIN_VALUE;
+    }
+
+    /**
+     * Insert or re-rank {@code r}; closed reports are removed. Call after every scored mutation;
+     * when the rank comes out the same as before, nothing moves.
+     */
+    public synchronized void update(Report r) {
+        if (r == null) return;
+        if (!r.isOpen()) {
+            detach(byId.remove(r.id));
+            return;
+        }
+        refresh(System.currentTimeMillis());
+        Rank next = rank(r);
+        Rank prev = byId.get(r.id);
+        if (prev != null && ORDER.compare(prev, next) == 0 && prev.unassigned == next.unassigned) return;
+        detach(byId.remove(r.id));
+        attach(next);
+    }
+
+    public synchronized void remove(long id) {
+        detach(byId.remove(id));
+    }
+
+    public synchronized int size() {
+        return all.size();
+    }
+
+    /**
+     * Up to {@code limit} reports in rank order, starting right after {@code after} or, when it is
+     * null or from an earlier epoch, at rank {@code offset}. A cursor is found in O(log n).
+     */
+    public synchronized ReportPage page(int offset, int limit, ReportPage.Cursor after) {
+        refresh(System.currentTimeMillis());
+        if (after != null && after.epoch() != epoch) after = null;
+        int max = Math.max(0, limit);
+        List<Rank> rows = new ArrayList<>(Math.min(max, 64));
+        boolean more;
+        if (after != null) {
+            Iterator<Rank> it = all.tailSet(probe(after), false).iterator();
+            while (rows.size() < max && it.hasNext()) rows.add(it.next());
+            more = it.hasNext();
+        } else {
+            int total = all.size();
+            int from = Math.max(0, offset);
+            int to = (int) Math.min(total, (long) from + max);
+            if (from >= to) return new ReportPage(List.of(), null);
+            more = to < total;
+            if (from <= total / 2) {
+                Iterator<Rank> it = all.iterator();
+                for (int i = 0; i < from; i++) it.next();
+                while (rows.size() < to - from) rows.add(it.next());
+            } else {
+                Iterator<Rank> it = all.descendingIterator();
+                for (int i = total; i > to; i--) it.next();
+                while (rows.size() < to - from) rows.add(0, it.next());
+            }
+        }
+        if (rows.isEmpty()) return new ReportPage(List.of(), null);
+        return new ReportPage(reports(rows), more ? cursor(rows.get(rows.size() - 1)) : null);
+    }
+
+    /**
+     * The same over {@code subset} only (e.g. one secondary-index bucket). A bounded heap keeps the
+     * best {@code offset + limit} ranks (just {@code limit} after a cursor), so the subset is never
+     * fully sorted: O(n log k). Reports that are not ranked (closed) are skipped.
+     */
+    public synchronized ReportPage page(Collection<Report> subset, int offset, int limit, ReportPage.Cursor after) {
+        refresh(System.currentTimeMillis());
+        if (after != null && after.epoch() != epoch) after = null;
+        int skip = after == null ? Math.max(0, offset) : 0;
+        int keep = (int) Math.min(Integer.MAX_VALUE - 1L, (long) skip + Math.max(0, limit));
+        Rank floor = after == null ? null : probe(after);
+        // max-heap on rank (worst on top), holding one extra rank to tell whether more follow
+        PriorityQueue<Rank> best = new PriorityQueue<>(Math.min(keep + 2, 1024), ORDER.reversed());
+        for (Report r : subset) {
+            Rank rank = byId.get(r.id);
+            if (rank == null || (floor != null && ORDER.compare(rank, floor) <= 0)) continue;
+            if (best.size() <= keep) {
+                best.add(rank);
+            } else if (ORDER.compare(rank, best.peek()) < 0) {
+                best.poll();
+                best.add(rank);
+            }
+        }
+        boolean more = best.size() > keep;
+        List<Rank> ranks = new ArrayList<>(best);
+        ranks.sort(ORDER);
+        if (more) ranks.remove(ranks.size() - 1);
+        if (skip >= ranks.size()) return new ReportPage(List.of(), null);
+        List<Rank> rows = ranks.subList(skip, ranks.size());
+        return new ReportPage(reports(rows), more ? cursor(rows.get(rows.size() - 1)) : null);
+    }
+
+    /** Highest ranked report matching {@code filter}, walking down from the top; null if none. */
+    public synchronized Report first(Predicate<Report> filter) {
+        refresh(System.currentTimeMillis());
+        for (Rank rank : all) {
+            if (filter.test(rank.report)) return rank.report;
+        }
+        return null;
+    }
+
+    /** Every open report in priority order. */
+    public synchronized List<Report> all() {
+        refresh(System.currentTimeMillis());
+        return reports(all);
+    }
+
+    /** {@code reports} (e.g. one secondary-index bucket) sorted by their current rank; unranked ones are dropped. */
+    public synchronized List<Report> inRankOrder(Collection<Report> reports) {
+        refresh(System.currentTimeMillis());
+        List<Rank> ranks = new ArrayList<>(reports.size());
+        for (Report r : reports) {
+            Rank rank = byId.get(r.id);
+            if (rank != null) ranks.add(rank);
+        }
+        ranks.sort(ORDER);
+        List<Report> out = new ArrayList<>(ranks.size());
+        for (Rank rank : ranks) out.add(rank.report);
+        return out;
+    }
+
+    /** Top unassigned report, or null when every open report is claimed. */
+    public synchronized Report firstUnassigned() {
+        refresh(System.currentTimeMillis());
+        return unassigned.isEmpty() ? null : unassigned.first().report;
+    }
+
+    /* ---------------- internals ---------------- */
+
+    private static Rank probe(ReportPage.Cursor c) {
+        return new Rank(c.id(), null, c.primary(), c.secondary(), false);
+    }
+
+    private ReportPage.Cursor cursor(Rank rank) {
+        return new ReportPage.Cursor(rank.score, rank.tie, rank.id, epoch);
+    }
+
+    private Rank rank(Report r) {
+        return new Rank(r.id, r, ranking.score(r, bucketStart), ranking.tieKey(r), isUnassigned(r));
+    }
+
+    /** Re-score everything if the time bucket rolled over (or the ranking changed). */
+    private void refresh(long now) {
+        if (bucketStart != Long.MIN_VALUE && (!ranking.timeDependent() || now - bucketStart < bucketMs)) {
+            return;
+        }
+        bucketStart = now - Math.floorMod(now, bucketMs);
+        epoch++;
+        List<Report> reports = new ArrayList<>(all.size());
+        for (Rank rank : all) reports.add(rank.report);
+        byId.clear();
+        all.clear();
+        unassigned.clear();
+        for (Report r : reports) attach(rank(r));
+    }
+
+    private void attach(Rank rank) {
+        byId.put(rank.id, rank);
+        all.add(rank);
+        if (rank.unassigned) unassigned.add(rank);
+    }
+
+    private void detach(Rank rank) {
+        if (rank == null) return;
+        all.remove(rank);
+        unassigned.remove(rank);
+    }
+
+    private static List<Report> reports(Collection<Rank> ranks) {
+        List<Report> out = new ArrayList<>(ranks.size());
+        for (Rank rank : ranks) out.add(rank.report);
+        return out;
+    }
+
+    private static boolean isUnassigned(Report r) {
+        return r.assignee == null || r.assignee.isBlank();
+    }
+}
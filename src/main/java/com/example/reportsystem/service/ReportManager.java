@@ -2,32 +2,52 @@ package com.example.reportsystem.service;
 
 import com.example.reportsystem.ReportSystem;
 import com.example.reportsystem.config.PluginConfig;
+import com.example.reportsystem.model.ChatLog;
 import com.example.reportsystem.model.ChatMessage;
 import com.example.reportsystem.model.Report;
+import com.example.reportsystem.model.ReportSnapshot;
 import com.example.reportsystem.model.ReportStatus;
 import com.example.reportsystem.model.ReportType;
 import com.example.reportsystem.storage.FileReportStorage;
+import com.example.reportsystem.storage.JournalReportStorage;
 import com.example.reportsystem.storage.MysqlReportStorage;
+import com.example.reportsystem.storage.ParallelDecoder;
+import com.example.reportsystem.storage.ReportCodec;
+import com.example.reportsystem.storage.ReportIndexEntry;
 import com.example.reportsystem.storage.ReportStorage;
 import com.example.reportsystem.storage.StoredReportPayload;
+import com.example.reportsystem.storage.WriteBehindQueue;
+import com.example.reportsystem.util.Interner;
 import org.slf4j.Logger;
-import org.yaml.snakeyaml.Yaml;
 
 import java.nio.file.Path;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * ReportManager
  *
  * - Thread-safe in-memory store of reports
- * - Persists each report as YAML via pluggable backends (filesystem or MySQL)
+ * - Persists each report via pluggable backends (filesystem or MySQL) and codecs (YAML or binary); backends with
+ *   incremental saves get metadata updates and chat appends separately (no chat re-serialisation)
+ * - Saves are coalesced by a write-behind queue (storage.write-behind) and drained on shutdown
  * - Stacking by (reported + type + category) within config.stackWindowSeconds
  * - Priority sorting for open reports: higher count first, then time (config.tieBreaker)
- * - Closed reports ordering tracked via internal closedAt map (Report has no closedAt field)
+ * - Closed reports ordering tracked via an internal closed index (Report has no closedAt field)
+ * - Optional lazy loading (storage.lazy-load): only open reports are resident, closed ones are
+ *   loaded on demand through a bounded cache
  * - Search by simple query
  * - Assign/Unassign/Close/Reopen
  * - Chat append support + initial chat capture from ChatLogService buffer
@@ -35,36 +55,96 @@ import java.util.stream.Collectors;
 public class ReportManager {
 
     private static final long INITIAL_CHAT_WINDOW_MS = 90_000L; // pull last 90s on creation
+    private static final int FILE_LOCK_STRIPES = 64;
+    private static final int SEARCH_BATCH = 16; // fewest search candidates fetched per index lock
 
     private final ReportSystem plugin;
     private final Logger log;
     private final ReportStorage storage;
+    /** null when storage.write-behind is disabled (each change is then saved on the I/O executor) */
+    private final WriteBehindQueue writeBehind;
+    /** storage calls made on behalf of command/event threads run here */
+    private final ExecutorService io;
+    /** write-through mode: last save queued per report, so saves of one report stay in order */
+    private final ConcurrentHashMap<Long, CompletableFuture<Void>> inflight = new ConcurrentHashMap<>();
     private volatile PluginConfig config;
 
     private volatile ChatLogService chat; // optional; injected by ChatLogService constructor
 
-    private final Map<Long, Report> reports = new ConcurrentHashMap<>();
+    /** resident reports: every open one; in lazy mode closed ones only once mutated this session */
+    private final LongMap<Report> reports = new LongMap<>();
     private final AtomicLong nextId = new AtomicLong(1);
-    private final ConcurrentHashMap<String, Set<Long>> openReportsByReported = new ConcurrentHashMap<>();
-
-    /** last "activity" timestamp we use for stacking-window checks */
-    private final Map<Long, Long> lastUpdateMillis = new ConcurrentHashMap<>();
-    /** closed timestamp per id (since Report doesn't have a closedAt field) */
-    private final Map<Long, Long> closedAtById = new ConcurrentHashMap<>();
-
-    private final Yaml yaml = new Yaml();
+    /*
+     * Secondary indexes over open reports (lowercase key -> ids). They change together with the
+     * status/assignee they mirror, inside synchronized(report), in indexOpenReport/removeIndexedReport
+     * and assign/unassign.
+     */
+    private final IdIndex openByReported = new IdIndex();
+    private final IdIndex openByReporter = new IdIndex();
+    private final IdIndex openByAssignee = new IdIndex();
+    private final IdIndex openByType = new IdIndex();
+    private final IdIndex openByTypeCategory = new IdIndex();
+    /** open ids per stackKey, and the report a new filing with that key stacks onto */
+    private final IdIndex openByStackKey = new IdIndex();
+    private final ConcurrentHashMap<String, Report> stackTargets = new ConcurrentHashMap<>();
+
+    /** trigram index over the searchable fields of every report (closed ones in lazy mode: reported only) */
+    private final SearchIndex searchIndex = new SearchIndex();
+    /** fileOrStack serialises per (reported, type, category) stripe, see fileLock */
+    private final Object[] fileLocks = new Object[FILE_LOCK_STRIPES];
+    /** open reports in priority order, re-ranked on mutation */
+    private final PriorityIndex ranked;
+    /** every closed report, resident or not (closedAt since Report doesn't have a closedAt field) */
+    private final LongMap<ReportIndexEntry> closedIndex = new LongMap<>();
+    /** the same entries ordered newest-closed first, (closedAt, id) descending; see indexClosed */
+    private final NavigableSet<ReportIndexEntry> closedOrder = new ConcurrentSkipListSet<>(CLOSED_ORDER);
+    /** lazy mode: closed reports are loaded on demand into closedCache (LRU, bounded) */
+    private final boolean lazy;
+    /** storage can page chat back in, so only the newest storage.chat-memory-lines stay on-heap */
+    private volatile boolean chatPaging;
+    private final Map<Long, Report> closedCache;
 
     public ReportManager(ReportSystem plugin, Path dataDir, PluginConfig config) {
         this.plugin = plugin;
         this.log = plugin.logger();
         this.config = config;
+        this.ranked = new PriorityIndex(new ConfigRanking(config), rescoreIntervalMs(config));
+        for (int i = 0; i < fileLocks.length; i++) fileLocks[i] = new Object();
         this.storage = createStorage(dataDir, config);
+        var ll = config.storage == null ? null : config.storage.lazyLoad;
+        boolean lazyMode = false;
         try {
             storage.init();
-            loadAll();
+            chatPaging = storage.supportsIncremental() && storage.supportsChatPaging();
+            if (ll != null && ll.enabled) {
+                lazyMode = storage.supportsLazyLoading();
+                if (!lazyMode) {
+                    log.info("Lazy loading is not supported by {} storage; loading all reports.", storage.backendKey());
+                }
+            }
+            loadAll(lazyMode);
         } catch (Exception e) {
             log.warn("Failed to initialise {} storage: {}", storage.backendKey(), e.toString());
         }
+        this.lazy = lazyMode;
+        int cacheSize = ll == null ? 0 : Math.max(1, ll.closedCacheSize);
+        this.closedCache = Collections.synchronizedMap(new LinkedHashMap<Long, Report>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Report> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        var wb = config.storage == null ? null : config.storage.writeBehind;
+        this.writeBehind = (wb != null && wb.enabled)
+                ? new WriteBehindQueue(this::persist, log, wb.flushIntervalMs, wb.maxDelayMs)
+                : null;
+        int ioThreads = Math.max(1, config.storage == null ? 2 : config.storage.ioThreads);
+        AtomicInteger ioSeq = new AtomicInteger();
+        this.io = Executors.newFixedThreadPool(ioThreads, r -> {
+            Thread t = new Thread(r, "ReportSystem-IO-" + ioSeq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
     }
 
     /* =========================
@@ -73,6 +153,7 @@ public class ReportManager {
 
     public void setConfig(PluginConfig cfg) {
         this.config = cfg;
+        ranked.setRanking(new ConfigRanking(cfg), rescoreIntervalMs(cfg));
         String requested = normalizeStorageMode(cfg);
         if (!storage.backendKey().equalsIgnoreCase(requested)) {
             log.warn("Storage backend changes at runtime are not supported (current={}, requested={}). Keeping {} backend.",
@@ -107,48 +188,99 @@ public class ReportManager {
         return new ArrayList<>(tdef.categories.keySet());
     }
 
-    /** Fetch by id. */
-    public Report get(long id) { return reports.get(id); }
+    /** Fetch by id (lazy mode: closed reports are loaded on demand, on the calling thread). */
+    public Report get(long id) {
+        Report r = reports.get(id);
+        if (r != null || !lazy) return r;
+        return loadClosed(id);
+    }
+
+    /**
+     * {@link #get(long)} for command and event threads: completes at once when the report is in
+     * memory, otherwise loads it on the storage I/O executor.
+     */
+    public CompletableFuture<Report> getAsync(long id) {
+        Report r = reports.get(id);
+        if (r != null || !lazy || !closedIndex.containsKey(id)) return CompletableFuture.completedFuture(r);
+        Report cached = closedCache.get(id);
+        if (cached != null) return CompletableFuture.completedFuture(cached);
+        return onIo(() -> loadClosed(id));
+    }
 
     /** Open reports sorted by priority (configurable multi-factor scoring). */
     public List<Report> getOpenReportsDescending() {
-        List<Report> list = reports.values().stream()
-                .filter(Report::isOpen)
-                .collect(Collectors.toCollection(ArrayList::new));
-
-        var priority = config.priority;
-        if (priority != null && priority.enabled) {
-            long now = System.currentTimeMillis();
-            list.sort((a, b) -> {
-                double sb = computePriorityScore(b, now, priority);
-                double sa = computePriorityScore(a, now, priority);
-                int cmp = Double.compare(sb, sa);
-                if (cmp != 0) return cmp;
-                return Long.compare(b.timestamp, a.timestamp);
-            });
-            return list;
+        return ranked.all();
+    }
+
+    /**
+     * One page (1-based) of open reports in priority order, optionally only one type (and
+     * category). Pass the previous page's {@link ReportPage#next()} as {@code after} to continue
+     * from it; {@code page} is then ignored.
+     */
+    public ReportPage getOpenReportsPage(String typeId, String categoryId, int page, int perPage, ReportPage.Cursor after) {
+        int per = Math.max(1, perPage);
+        int offset = Math.max(0, (page - 1) * per);
+        if (typeId == null) {
+            return ranked.page(offset, per, after);
         }
+        return ranked.page(resolve(openIdsByType(typeId, categoryId)), offset, per, after);
+    }
 
-        // fallback: simple count and timestamp ordering
-        list.sort((a, b) -> {
-            int byCount = Integer.compare(b.count, a.count);
-            if (byCount != 0) return byCount;
-            boolean newest = !"oldest".equalsIgnoreCase(config.tieBreaker);
-            return newest ? Long.compare(b.timestamp, a.timestamp)
-                          : Long.compare(a.timestamp, b.timestamp);
-        });
-        return list;
+    public int countOpenReports() {
+        return ranked.size();
+    }
+
+    public int countOpenReports(String typeId, String categoryId) {
+        return typeId == null ? ranked.size() : openIdsByType(typeId, categoryId).length;
+    }
+
+    /** The open report /reports claim should hand out next, or null if all are claimed. */
+    public Report highestPriorityUnclaimed() {
+        return ranked.firstUnassigned();
+    }
+
+    /** Top open report claimed by someone other than {@code staff} (force-claim fallback), or null. */
+    public Report highestPriorityClaimedByOther(String staff) {
+        return ranked.first(r -> r.assignee != null && !r.assignee.equalsIgnoreCase(staff));
+    }
+
+    /** Open reports claimed by {@code staff}, in priority order. */
+    public List<Report> getOpenReportsAssignedTo(String staff) {
+        return ranked.inRankOrder(resolve(openByAssignee.get(indexKey(staff))));
+    }
+
+    public int countOpenReportsAssignedTo(String staff) {
+        return openByAssignee.count(indexKey(staff));
+    }
+
+    private long[] openIdsByType(String typeId, String categoryId) {
+        return categoryId == null
+                ? openByType.get(indexKey(typeId))
+                : openByTypeCategory.get(typeCategoryKey(typeId, categoryId));
+    }
+
+    /** Open reports filed by {@code reporter}, in priority order. */
+    public List<Report> getOpenReportsByReporter(String reporter) {
+        return ranked.inRankOrder(resolve(openByReporter.get(indexKey(reporter))));
+    }
+
+    /**
+     * Whether chat from this player is appended live to reports: true while at least one report
+     * against them is open. The reported-player index gains or loses the id on every file, stack,
+     * close and reopen, so its id count is the reference count; this is a single map lookup.
+     */
+    public boolean isWatched(String playerName) {
+        return openByReported.count(indexKey(playerName)) > 0;
     }
 
     /** Lightweight look-up for ChatLogService: open reports where reported equals name. */
     public List<Report> getOpenReportsFor(String reportedName) {
         if (reportedName == null || reportedName.isBlank()) return List.of();
         String needle = reportedName.toLowerCase(Locale.ROOT);
-        Set<Long> ids = openReportsByReported.get(needle);
-        if (ids == null || ids.isEmpty()) return List.of();
-        List<Report> out = new ArrayList<>(ids.size());
-        for (Long id : ids) {
-            if (id == null) continue;
+        long[] ids = openByReported.get(needle);
+        if (ids.length == 0) return List.of();
+        List<Report> out = new ArrayList<>(ids.length);
+        for (long id : ids) {
             Report r = reports.get(id);
             if (r == null || !r.isOpen()) continue;
             if (r.reported == null) continue;
@@ -159,25 +291,88 @@ public class ReportManager {
         return out;
     }
 
-    /** Closed reports newest-closed first (tracked via closedAtById; fallback to timestamp). */
-    public List<Report> getClosedReportsDescending() {
-        List<Report> list = reports.values().stream()
-                .filter(r -> !r.isOpen())
-                .collect(Collectors.toCollection(ArrayList::new));
-        list.sort((a, b) -> {
-            long ca = closedAtById.getOrDefault(a.id, a.timestamp);
-            long cb = closedAtById.getOrDefault(b.id, b.timestamp);
-            return Long.compare(cb, ca);
-        });
-        return list;
+    /** Closed report ids newest-closed first (from the closed index; nothing is loaded). */
+    public List<Long> closedIdsDescending() {
+        List<Long> ids = new ArrayList<>(closedIndex.size());
+        for (ReportIndexEntry e : closedOrder) ids.add(e.id());
+        return ids;
+    }
+
+    /**
+     * One page (1-based) of closed reports, newest-closed first; only that page is loaded (lazy
+     * mode: on the calling thread, see {@link #getClosedReportsPageAsync}).
+     * With the previous page's cursor the walk resumes right after its last entry; otherwise it
+     * starts from whichever end of the ordered index is closer to the page.
+     */
+    public ReportPage getClosedReportsPage(int page, int perPage, ReportPage.Cursor after) {
+        int per = Math.max(1, perPage);
+        int total = closedIndex.size();
+        List<ReportIndexEntry> entries = new ArrayList<>(per);
+        boolean more;
+        if (after != null) {
+            Iterator<ReportIndexEntry> it = closedOrder
+                    .tailSet(new ReportIndexEntry(after.id(), ReportStatus.CLOSED, null, after.secondary()), false)
+                    .iterator();
+            while (entries.size() < per && it.hasNext()) entries.add(it.next());
+            more = it.hasNext();
+            return closedPage(entries, more);
+        }
+        int from = Math.max(0, (page - 1) * per);
+        if (from >= total) return new ReportPage(List.of(), null);
+        int to = Math.min(total, from + per);
+        more = to < total;
+        if (from <= total / 2) {
+            Iterator<ReportIndexEntry> it = closedOrder.iterator();
+            for (int i = 0; i < from && it.hasNext(); i++) it.next();
+            while (entries.size() < to - from && it.hasNext()) entries.add(it.next());
+        } else {
+            Iterator<ReportIndexEntry> it = closedOrder.descendingIterator();
+            for (int i = total; i > to && it.hasNext(); i--) it.next();
+            while (entries.size() < to - from && it.hasNext()) entries.add(it.next());
+            Collections.reverse(entries);
+        }
+        return closedPage(entries, more);
+    }
+
+    /**
+     * {@link #getClosedReportsPage} for command threads: in lazy mode the rows that are not in
+     * memory are loaded on the storage I/O executor, otherwise it completes at once.
+     */
+    public CompletableFuture<ReportPage> getClosedReportsPageAsync(int page, int perPage, ReportPage.Cursor after) {
+        if (!lazy) return CompletableFuture.completedFuture(getClosedReportsPage(page, perPage, after));
+        return onIo(() -> getClosedReportsPage(page, perPage, after));
+    }
+
+    private ReportPage closedPage(List<ReportIndexEntry> entries, boolean more) {
+        List<Report> out = new ArrayList<>(entries.size());
+        for (ReportIndexEntry e : entries) {
+            Report r = get(e.id());
+            if (r != null) out.add(r);
+        }
+        ReportPage.Cursor next = null;
+        if (more && !entries.isEmpty()) {
+            ReportIndexEntry last = entries.get(entries.size() - 1);
+            next = new ReportPage.Cursor(0, last.closedAt(), last.id());
+        }
+        return new ReportPage(out, next);
     }
 
     public int countClosedReports() {
-        return (int) reports.values().stream().filter(r -> !r.isOpen()).count();
+        return closedIndex.size();
     }
 
-    /** Search by query across basic fields; scope=open|closed|all. */
-    public List<Report> search(String query, String scope) {
+    /**
+     * Search by query across basic fields; scope=open|closed|all. Returns at most {@code limit}
+     * matches ordered by id, highest first, and stops once it has them. Ids are handed out in
+     * filing order, so this is newest-filed first; a report's later activity (stacks, chat,
+     * status changes) does not move it up.
+     * Queries of three or more characters only verify reports sharing all their trigrams. A
+     * shorter query has no trigram to narrow it down, so it only matches a report id exactly
+     * (see {@link #isSearchable}); anything else would mean scanning the whole history.
+     * In lazy mode closed reports that are not in memory only match on id and reported player,
+     * and matches are loaded on the calling thread (see {@link #searchAsync}).
+     */
+    public List<Report> search(String query, String scope, int limit) {
         String q = query == null ? "" : query.toLowerCase(Locale.ROOT);
         boolean wantOpen, wantClosed;
         switch (scope == null ? "open" : scope.toLowerCase(Locale.ROOT)) {
@@ -185,160 +380,578 @@ public class ReportManager {
             case "closed" -> { wantOpen = false; wantClosed = true; }
             default -> { wantOpen = true; wantClosed = false; }
         }
-        return reports.values().stream()
-                .filter(r -> (r.isOpen() && wantOpen) || (!r.isOpen() && wantClosed))
-                .filter(r -> matches(r, q))
-                .sorted(Comparator.comparingLong((Report r) -> r.timestamp).reversed())
-                .collect(Collectors.toList());
+        int max = Math.max(1, limit);
+        List<Report> out = new ArrayList<>(Math.min(max, 64));
+        // an id query ("1234") matches the id itself, which is not part of the indexed text
+        long idHit = -1;
+        try { idHit = Long.parseLong(q); } catch (NumberFormatException ignored) {}
+        if (q.length() < SearchIndex.GRAM) {
+            if (idHit > 0) addIfMatch(out, idHit, q, wantOpen, wantClosed);
+            return out;
+        }
+        // candidates come in batches, highest id first, until the top `max` are verified
+        long below = Long.MAX_VALUE;
+        while (out.size() < max) {
+            int ask = Math.max(SEARCH_BATCH, max - out.size());
+            long[] batch = searchIndex.candidates(q, below, ask);
+            for (int i = 0; i < batch.length && out.size() < max; i++) {
+                long id = batch[i];
+                if (idHit > id) {
+                    addIfMatch(out, idHit, q, wantOpen, wantClosed);
+                    idHit = -1;
+                    if (out.size() >= max) break;
+                }
+                if (idHit == id) idHit = -1;
+                addIfMatch(out, id, q, wantOpen, wantClosed);
+                below = id;
+            }
+            if (batch.length < ask) break;
+        }
+        if (idHit > 0 && out.size() < max) addIfMatch(out, idHit, q, wantOpen, wantClosed);
+        return out;
     }
 
-    /** Create or stack a report. */
-    public synchronized Report fileOrStack(String reporter, String reported, ReportType rt, String reason) {
-        long now = System.currentTimeMillis();
+    /**
+     * {@link #search} for command threads: when closed reports may have to be loaded (lazy mode,
+     * closed or all scope) the search runs on the storage I/O executor, otherwise it completes at once.
+     */
+    public CompletableFuture<List<Report>> searchAsync(String query, String scope, int limit) {
+        String s = scope == null ? "open" : scope.toLowerCase(Locale.ROOT);
+        if (!lazy || !(s.equals("closed") || s.equals("all"))) {
+            return CompletableFuture.completedFuture(search(query, scope, limit));
+        }
+        return onIo(() -> search(query, scope, limit));
+    }
 
-        Report target = findStackTarget(reported, rt);
-        if (target != null) {
-            long last = lastUpdateMillis.getOrDefault(target.id, target.timestamp);
-            int windowSec = Math.max(0, config.stackWindowSeconds);
-            if (windowSec == 0 || (now - last) <= windowSec * 1000L) {
-                target.count = Math.max(1, target.count) + 1;
-                if (reason != null && !reason.isBlank()) {
-                    target.reason = (target.reason == null || target.reason.isBlank())
-                            ? reason
-                            : target.reason + " | " + reason;
-                }
-                lastUpdateMillis.put(target.id, now);
-                trySave(target);
-                return target;
-            }
+    /**
+     * Whether {@link #search} can answer {@code query} from the index: at least
+     * {@link SearchIndex#GRAM} characters, or a report id.
+     */
+    public static boolean isSearchable(String query) {
+        if (query == null) return false;
+        if (query.length() >= SearchIndex.GRAM) return true;
+        try {
+            return Long.parseLong(query) > 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /** Verify one search candidate against the real fields and the scope. */
+    private void addIfMatch(List<Report> out, long id, String q, boolean wantOpen, boolean wantClosed) {
+        Report r = reports.get(id);
+        if (r != null) {
+            if ((r.isOpen() ? wantOpen : wantClosed) && matches(r, q)) out.add(r);
+            return;
         }
+        if (!lazy || !wantClosed || q.isEmpty()) return;
+        ReportIndexEntry e = closedIndex.get(id);
+        if (e == null) return;
+        if (!String.valueOf(id).equals(q) && !contains(e.reported(), q)) return;
+        Report loaded = loadClosed(id);
+        if (loaded != null) out.add(loaded);
+    }
+
+    /**
+     * Create or stack a report.
+     *
+     * Filings lock only the stripe for their (reported, type, category) target, so reports
+     * against different players proceed in parallel while two filings that could stack onto the
+     * same report are serialised. The new report (including the chat-buffer copy) is prepared
+     * before taking the lock, and persistence is queued after releasing it.
+     */
+    public Report fileOrStack(String reporter, String reported, ReportType rt, String reason) {
+        long now = System.currentTimeMillis();
 
-        long id = nextId.getAndIncrement();
         Report r = new Report();
-        r.id = id;
         r.reporter = safeStr(reporter);
         r.reported = safeStr(reported);
-        r.typeId = rt.typeId;
-        r.typeDisplay = rt.typeDisplay;
-        r.categoryId = rt.categoryId;
-        r.categoryDisplay = rt.categoryDisplay;
+        r.typeId = Interner.intern(rt.typeId);
+        r.typeDisplay = Interner.intern(rt.typeDisplay);
+        r.categoryId = Interner.intern(rt.categoryId);
+        r.categoryDisplay = Interner.intern(rt.categoryDisplay);
         r.reason = safeStr(reason);
         r.count = 1;
         r.timestamp = now;
         r.status = ReportStatus.OPEN;
         r.assignee = null;
 
-        // Attach initial chat from rolling buffer (for the TARGET)
+        // Attach initial chat from rolling buffer (for the TARGET, plus the conversation around them)
         if (chat != null && r.reported != null && !r.reported.isBlank()) {
-            List<ChatMessage> recent = chat.recentFor(r.reported, INITIAL_CHAT_WINDOW_MS);
+            List<ChatMessage> recent = chat.evidenceFor(r.reported, INITIAL_CHAT_WINDOW_MS, rt);
             if (recent != null && !recent.isEmpty()) {
-                if (r.chat == null) r.chat = new ArrayList<>();
                 r.chat.addAll(recent);
             }
         }
 
-        reports.put(id, r);
-        lastUpdateMillis.put(id, now);
-        closedAtById.remove(id);
-        indexOpenReport(r);
-        trySave(r);
+        Report stacked = null;
+        synchronized (fileLock(reported, rt)) {
+            Report target = findStackTarget(reported, rt);
+            if (target != null) {
+                long last = target.snapshot().lastUpdate();
+                int windowSec = Math.max(0, config.stackWindowSeconds);
+                if (windowSec == 0 || (now - last) <= windowSec * 1000L) {
+                    synchronized (target) {
+                        // close() only takes the report's monitor, so the target may have been
+                        // closed since the lookup; then this filing opens a new report instead
+                        if (target.isOpen()) {
+                            target.count = Math.max(1, target.count) + 1;
+                            if (reason != null && !reason.isBlank()) {
+                                target.reason = (target.reason == null || target.reason.isBlank())
+                                        ? reason
+                                        : target.reason + " | " + reason;
+                            }
+                            target.lastUpdate = now;
+                            target.publish();
+                            stacked = target;
+                        }
+                    }
+                    if (stacked != null) ranked.update(target);
+                }
+            }
+            if (stacked == null) {
+                long id = nextId.getAndIncrement();
+                r.id = id;
+                r.lastUpdate = now;
+                reports.put(id, r);
+                synchronized (r) {
+                    r.publish();
+                    indexOpenReport(r);
+                }
+            }
+        }
+
+        if (stacked != null) {
+            searchIndex.add(stacked.id, stacked.reason);
+            trySave(stacked);
+            return stacked;
+        }
+        indexSearchable(r);
+        trySaveNew(r);
         return r;
     }
 
     /** Append a chat message to a report (used by ChatLogService). */
     public void appendChat(Long id, ChatMessage msg) {
-        if (id == null || msg == null) return;
+        if (msg == null) return;
+        appendChat(id, List.of(msg));
+    }
+
+    /** Append a batch of chat lines to one report: one publish, one save, and a re-rank only if its score moved. */
+    public void appendChat(Long id, List<ChatMessage> lines) {
+        if (id == null || lines == null || lines.isEmpty()) return;
         Report r = reports.get(id);
         if (r == null) return;
-        if (r.chat == null) r.chat = new ArrayList<>();
-        r.chat.add(msg);
-        trySave(r);
-        lastUpdateMillis.put(id, System.currentTimeMillis());
+        int from;
+        int size;
+        boolean spill;
+        synchronized (r) {
+            if (r.chat == null) r.chat = new ChatLog();
+            // re-send from the first line of an earlier failed append (Report.chatUnsaved)
+            from = r.chatUnsaved < 0 ? r.chat.size() : Math.min(r.chatUnsaved, r.chat.size());
+            r.chat.addAll(lines);
+            r.lastUpdate = System.currentTimeMillis();
+            r.publish();
+            size = r.chat.size();
+            spill = chatPaging && size - r.chat.spilled() > chatMemoryLines();
+        }
+        ranked.update(r);
+        // re-sending lines of an earlier failed save is safe: storage skips what it already has
+        trySaveChat(r, from).whenComplete((v, e) -> {
+            synchronized (r) {
+                if (e != null) {
+                    if (r.chatUnsaved < 0 || from < r.chatUnsaved) r.chatUnsaved = from;
+                } else if (r.chatUnsaved >= from) {
+                    r.chatUnsaved = -1;
+                }
+            }
+            // once these lines are stored, everything before them is too
+            if (e == null && spill) spillChat(r, size);
+        });
+    }
+
+    /**
+     * Chat lines {@code [from, to)} of a report snapshot; lines spilled out of memory are read
+     * back from storage (on the calling thread).
+     */
+    public List<ChatMessage> chatLines(ReportSnapshot s, int from, int to) {
+        ChatLog chat = s.chat();
+        int start = Math.max(0, from);
+        int end = Math.min(to, chat.size());
+        if (start >= end) return List.of();
+        List<ChatMessage> out = new ArrayList<>(end - start);
+        int spilled = chat.spilled();
+        if (start < spilled) {
+            try {
+                out.addAll(storage.loadChat(s.id(), start, Math.min(end, spilled)));
+            } catch (Exception e) {
+                log.warn("Failed to load chat of report #{}: {}", s.id(), e.toString());
+            }
+        }
+        if (end > Math.max(start, spilled)) out.addAll(chat.view(Math.max(start, spilled), end));
+        return out;
+    }
+
+    /**
+     * {@link #chatLines(ReportSnapshot, int, int)} for command threads: completes at once when every
+     * line asked for is in memory, otherwise pages them back on the storage I/O executor.
+     */
+    public CompletableFuture<List<ChatMessage>> chatLinesAsync(ReportSnapshot s, int from, int to) {
+        if (Math.max(0, from) >= s.chat().spilled()) return CompletableFuture.completedFuture(chatLines(s, from, to));
+        return onIo(() -> chatLines(s, from, to));
+    }
+
+    /** {@link #chatLinesAsync(ReportSnapshot, int, int)} for the whole log. */
+    public CompletableFuture<List<ChatMessage>> chatLinesAsync(ReportSnapshot s) {
+        return chatLinesAsync(s, 0, s.chat().size());
+    }
+
+    /** Every chat line of a report snapshot, paging spilled lines back from storage. */
+    public List<ChatMessage> chatLines(ReportSnapshot s) {
+        return chatLines(s, 0, s.chat().size());
+    }
+
+    /** Drop chat lines below {@code stored} (already persisted) that fall outside the in-memory tail. */
+    private void spillChat(Report r, int stored) {
+        int keep = chatMemoryLines();
+        if (!chatPaging || keep <= 0) return;
+        synchronized (r) {
+            // nothing is spilled until a save has covered the failed lines
+            if (r.chatUnsaved >= 0) return;
+            ChatLog spilled = r.chat.spill(Math.min(stored, r.chat.size() - keep));
+            if (spilled == r.chat) return;
+            r.chat = spilled;
+            r.publish();
+        }
+    }
+
+    /** Freshly loaded report: every line is in storage, keep only the tail in memory. */
+    private void spillLoadedChat(Report r) {
+        int keep = chatMemoryLines();
+        if (!chatPaging || keep <= 0 || r.chat == null) return;
+        r.chat = r.chat.spill(r.chat.size() - keep);
+    }
+
+    private int chatMemoryLines() {
+        PluginConfig cfg = config;
+        return cfg == null || cfg.storage == null ? 0 : Math.max(0, cfg.storage.chatMemoryLines);
     }
 
+    /*
+     * Mutations apply in memory and return at once; the returned future completes when the
+     * change has been persisted. It fails with the storage error only once the change is given up
+     * on: write-behind keeps retrying until shutdown, write-through does not retry. Callers never
+     * block on it.
+     */
+
     /** Assign/Unassign. */
-    public void assign(long id, String staff) {
-        Report r = reports.get(id);
-        if (r == null) return;
-        r.assignee = safeStr(staff);
-        trySave(r);
+    public CompletableFuture<Void> assign(long id, String staff) {
+        return mutate(id, r -> {
+            setAssignee(r, safeStr(staff));
+            return trySave(r);
+        });
     }
-    public void unassign(long id) {
-        Report r = reports.get(id);
-        if (r == null) return;
-        r.assignee = null;
-        trySave(r);
+    public CompletableFuture<Void> unassign(long id) {
+        return mutate(id, r -> {
+            setAssignee(r, null);
+            return trySave(r);
+        });
     }
+    /** Whether resident report {@code id} has an assignee; never reads storage (open reports are always resident). */
     public boolean isAssigned(long id) {
         Report r = reports.get(id);
         return r != null && r.assignee != null && !r.assignee.isBlank();
     }
 
     /** Optional: persist the source server the report was filed from. */
-    public void updateSourceServer(long id, String server) {
-        Report r = reports.get(id);
-        if (r == null) return;
-        r.sourceServer = (server == null || server.isBlank()) ? null : server;
-        trySave(r);
+    public CompletableFuture<Void> updateSourceServer(long id, String server) {
+        return mutate(id, r -> {
+            synchronized (r) {
+                r.sourceServer = (server == null || server.isBlank()) ? null : Interner.intern(server);
+                r.publish();
+            }
+            return trySave(r);
+        });
     }
 
     /** Close/Reopen. */
-    public void close(long id) {
-        Report r = reports.get(id);
-        if (r == null) return;
-        if (r.isOpen()) {
-            removeIndexedReport(r);
-        }
-        r.status = ReportStatus.CLOSED;
-        long now = System.currentTimeMillis();
-        closedAtById.put(id, now);
-        trySave(r); // we also persist closedAt
+    public CompletableFuture<Void> close(long id) {
+        return mutate(id, r -> {
+            synchronized (r) {
+                if (r.isOpen()) {
+                    removeIndexedReport(r);
+                }
+                r.status = ReportStatus.CLOSED;
+                r.publish();
+                long now = System.currentTimeMillis();
+                indexClosed(new ReportIndexEntry(id, ReportStatus.CLOSED, r.reported, now));
+            }
+            return trySave(r); // we also persist closedAt
+        });
     }
-    public boolean reopen(long id) {
-        Report r = reports.get(id);
+    /**
+     * Reopen a closed report. Completes with false for an unknown id. In lazy mode a report that
+     * is not in memory is loaded and reopened on the storage I/O executor.
+     */
+    public CompletableFuture<Boolean> reopenAsync(long id) {
+        if (!lazy || reports.containsKey(id)) return CompletableFuture.completedFuture(reopen(id));
+        return onIo(() -> reopen(id));
+    }
+
+    private boolean reopen(long id) {
+        Report r = resident(id);
         if (r == null) return false;
-        if (r.isOpen()) return true;
-        r.status = ReportStatus.OPEN;
-        closedAtById.remove(id);
-        lastUpdateMillis.put(id, System.currentTimeMillis());
-        indexOpenReport(r);
+        synchronized (r) {
+            if (r.isOpen()) return true;
+            r.status = ReportStatus.OPEN;
+            r.lastUpdate = System.currentTimeMillis();
+            r.publish();
+            unindexClosed(id);
+            indexOpenReport(r);
+        }
         trySave(r);
         return true;
     }
 
-    /** No-op (per-report saves are immediate). */
-    public void save() { }
+    /** Completes once every change made so far to report {@code id} has been persisted. */
+    public CompletableFuture<Void> whenPersisted(long id) {
+        if (writeBehind != null) return writeBehind.whenFlushed(id);
+        return inflight.getOrDefault(id, CompletableFuture.completedFuture(null));
+    }
+
+    /** Ask pending saves to be written promptly (no-op when write-behind is disabled). */
+    public void save() {
+        if (writeBehind != null) writeBehind.flushSoon();
+    }
+
+    /** Drain pending saves; called once on proxy shutdown. */
+    public void shutdown() {
+        if (writeBehind != null) {
+            int pending = writeBehind.pending();
+            writeBehind.close();
+            log.info("Flushed {} pending report save(s) on shutdown", pending);
+        }
+        io.shutdown();
+        try {
+            if (!io.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Report I/O did not finish in time; {} save(s) may be lost.", inflight.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            storage.close();
+        } catch (Exception e) {
+            log.warn("Failed to close {} storage: {}", storage.backendKey(), e.toString());
+        }
+    }
 
     /* =========================
                INTERNALS
        ========================= */
 
+    /**
+     * Apply {@code change} to a resident report: at once if it is in memory, otherwise after
+     * loading it on the I/O executor. Unknown ids complete without a change.
+     */
+    private CompletableFuture<Void> mutate(long id, Function<Report, CompletableFuture<Void>> change) {
+        Report r = reports.get(id);
+        if (r != null || !lazy) {
+            return r == null ? CompletableFuture.completedFuture(null) : change.apply(r);
+        }
+        return onIo(() -> resident(id)).thenCompose(loaded ->
+                loaded == null ? CompletableFuture.completedFuture(null) : change.apply(loaded));
+    }
+
+    /** Run a storage read on the I/O executor (on the caller once it has shut down). */
+    private <T> CompletableFuture<T> onIo(Supplier<T> read) {
+        try {
+            return CompletableFuture.supplyAsync(read, io);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(read.get());
+        }
+    }
+
+    /** Resolve for mutation: lazily loaded closed reports become resident so saves can find them. */
+    private Report resident(long id) {
+        Report r = reports.get(id);
+        if (r != null || !lazy) return r;
+        Report loaded = loadClosed(id);
+        if (loaded == null) return null;
+        Report prev = reports.putIfAbsent(id, loaded);
+        closedCache.remove(id);
+        return prev != null ? prev : loaded;
+    }
+
+    /** Lazy mode: load a closed report that is not resident, going through closedCache. */
+    private Report loadClosed(long id) {
+        if (!closedIndex.containsKey(id)) return null;
+        Report cached = closedCache.get(id);
+        if (cached != null) return cached;
+        try {
+            StoredReportPayload payload = storage.loadById(id);
+            Report r = payload == null ? null : payload.report();
+            if (r == null) return null;
+            Report resident = reports.get(id); // made resident meanwhile
+            if (resident != null) return resident;
+            spillLoadedChat(r);
+            r.publish();
+            closedCache.put(id, r);
+            return r;
+        } catch (Exception e) {
+            log.warn("Failed to load report #{}: {}", id, e.toString());
+            return null;
+        }
+    }
+
+    /** Add an open report to the ranked and secondary indexes. */
     private void indexOpenReport(Report r) {
         if (r == null || !r.isOpen()) return;
-        String key = keyForReported(r.reported);
-        if (key == null) return;
-        openReportsByReported
-                .computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet())
-                .add(r.id);
+        ranked.update(r);
+        openByReported.add(indexKey(r.reported), r.id);
+        openByReporter.add(indexKey(r.reporter), r.id);
+        openByAssignee.add(indexKey(r.assignee), r.id);
+        openByType.add(indexKey(r.typeId), r.id);
+        openByTypeCategory.add(typeCategoryKey(r.typeId, r.categoryId), r.id);
+        String stackKey = stackKey(r.reported, r.typeId, r.categoryId);
+        openByStackKey.add(stackKey, r.id);
+        stackTargets.merge(stackKey, r, (cur, added) -> !cur.isOpen() || betterTarget(added, cur) ? added : cur);
     }
 
+    /** Drop a report from the ranked and secondary indexes (before it closes). */
     private void removeIndexedReport(Report r) {
-        String key = keyForReported(r.reported);
-        if (key == null) return;
-        Set<Long> ids = openReportsByReported.get(key);
-        if (ids == null) return;
-        ids.remove(r.id);
-        if (ids.isEmpty()) {
-            openReportsByReported.remove(key, ids);
+        ranked.remove(r.id);
+        openByReported.remove(indexKey(r.reported), r.id);
+        openByReporter.remove(indexKey(r.reporter), r.id);
+        openByAssignee.remove(indexKey(r.assignee), r.id);
+        openByType.remove(indexKey(r.typeId), r.id);
+        openByTypeCategory.remove(typeCategoryKey(r.typeId, r.categoryId), r.id);
+        String stackKey = stackKey(r.reported, r.typeId, r.categoryId);
+        openByStackKey.remove(stackKey, r.id);
+        // compute() serialises with indexOpenReport's merge for the same key
+        stackTargets.compute(stackKey, (k, cur) -> cur != r ? cur : bestTarget(openByStackKey.get(k)));
+    }
+
+    private void setAssignee(Report r, String assignee) {
+        synchronized (r) {
+            if (r.isOpen()) openByAssignee.remove(indexKey(r.assignee), r.id);
+            r.assignee = Interner.intern(assignee);
+            r.publish();
+            if (r.isOpen()) openByAssignee.add(indexKey(r.assignee), r.id);
+            ranked.update(r);
+        }
+    }
+
+    private List<Report> resolve(long[] ids) {
+        List<Report> out = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            Report r = reports.get(id);
+            if (r != null && r.isOpen()) out.add(r);
+        }
+        return out;
+    }
+
+    /** Lock stripe for filings that could stack onto the same report. */
+    private Object fileLock(String reported, ReportType rt) {
+        int h = stackKey(reported, rt.typeId, rt.categoryId).hashCode();
+        h ^= (h >>> 16);
+        return fileLocks[Math.floorMod(h, fileLocks.length)];
+    }
+
+    private void indexSearchable(Report r) {
+        searchIndex.add(r.id, r.reporter, r.reported, r.reason, r.typeDisplay, r.categoryDisplay);
+    }
+
+    /** closedIndex and closedOrder change together; an entry is replaced, never duplicated. */
+    private void indexClosed(ReportIndexEntry e) {
+        synchronized (closedOrder) {
+            ReportIndexEntry prev = closedIndex.put(e.id(), e);
+            if (prev != null) closedOrder.remove(prev);
+            closedOrder.add(e);
         }
     }
 
-    private String keyForReported(String name) {
+    private void unindexClosed(long id) {
+        synchronized (closedOrder) {
+            ReportIndexEntry prev = closedIndex.remove(id);
+            if (prev != null) closedOrder.remove(prev);
+        }
+    }
+
+    private static String indexKey(String name) {
         if (name == null) return null;
         String key = name.trim().toLowerCase(Locale.ROOT);
         return key.isEmpty() ? null : key;
     }
 
+    /**
+     * Reports with equal stack keys stack onto each other. Unlike indexKey, a blank reported
+     * name (non-player types) is a key of its own, so those stack in O(1) too.
+     */
+    private static String stackKey(String reported, String typeId, String categoryId) {
+        return norm(reported) + '\u0000' + norm(typeId) + '\u0000' + norm(categoryId);
+    }
+
+    private static String norm(String s) {
+        return s == null ? "" : s.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String typeCategoryKey(String typeId, String categoryId) {
+        String type = indexKey(typeId);
+        String category = indexKey(categoryId);
+        return type == null || category == null ? null : type + "/" + category;
+    }
+
+    /**
+     * Concurrent multimap key -> ids. Each key holds a sorted long[] that is replaced, never
+     * modified, so readers can iterate it without locking; empty keys are dropped atomically.
+     */
+    private static final class IdIndex {
+        private static final long[] NONE = new long[0];
+        private final ConcurrentHashMap<String, long[]> map = new ConcurrentHashMap<>();
+
+        void add(String key, long id) {
+            if (key == null) return;
+            map.compute(key, (k, ids) -> {
+                if (ids == null) return new long[] {id};
+                int at = Arrays.binarySearch(ids, id);
+                if (at >= 0) return ids;
+                at = -at - 1;
+                long[] out = new long[ids.length + 1];
+                System.arraycopy(ids, 0, out, 0, at);
+                out[at] = id;
+                System.arraycopy(ids, at, out, at + 1, ids.length - at);
+                return out;
+            });
+        }
+
+        void remove(String key, long id) {
+            if (key == null) return;
+            map.computeIfPresent(key, (k, ids) -> {
+                int at = Arrays.binarySearch(ids, id);
+                if (at < 0) return ids;
+                if (ids.length == 1) return null;
+                long[] out = new long[ids.length - 1];
+                System.arraycopy(ids, 0, out, 0, at);
+                System.arraycopy(ids, at + 1, out, at, ids.length - at - 1);
+                return out;
+            });
+        }
+
+        long[] get(String key) {
+            long[] ids = key == null ? null : map.get(key);
+            return ids == null ? NONE : ids;
+        }
+
+        int count(String key) {
+            return get(key).length;
+        }
+
+        void clear() {
+            map.clear();
+        }
+    }
+
     private String safeStr(String s) {
         return s == null ? "" : s.trim();
     }
@@ -357,181 +970,200 @@ public class ReportManager {
         return hay != null && hay.toLowerCase(Locale.ROOT).contains(needle);
     }
 
+    /** Current stack target for a filing, via the (reported, type, category) index. */
     private Report findStackTarget(String reported, ReportType rt) {
-        String target = reported == null ? "" : reported;
-        String key = keyForReported(target);
-        List<Report> candidates;
-        if (key != null) {
-            Set<Long> ids = openReportsByReported.get(key);
-            if (ids == null || ids.isEmpty()) {
-                return null;
-            }
-            candidates = new ArrayList<>(ids.size());
-            for (Long id : ids) {
-                if (id == null) continue;
-                Report candidate = reports.get(id);
-                if (candidate == null || !candidate.isOpen()) continue;
-                if (!candidate.typeId.equalsIgnoreCase(rt.typeId)) continue;
-                if (!candidate.categoryId.equalsIgnoreCase(rt.categoryId)) continue;
-                if (!equalsCI(candidate.reported, target)) continue;
-                candidates.add(candidate);
-            }
-        } else {
-            candidates = reports.values().stream()
-                    .filter(Report::isOpen)
-                    .filter(r -> equalsCI(r.reported, target))
-                    .filter(r -> r.typeId.equalsIgnoreCase(rt.typeId) && r.categoryId.equalsIgnoreCase(rt.categoryId))
-                    .collect(Collectors.toList());
-        }
-        if (candidates.isEmpty()) return null;
-        candidates.sort((a, b) -> {
-            int byCount = Integer.compare(b.count, a.count);
-            if (byCount != 0) return byCount;
-            return Long.compare(b.timestamp, a.timestamp);
-        });
-        return candidates.get(0);
+        Report target = stackTargets.get(stackKey(reported, rt.typeId, rt.categoryId));
+        return target != null && target.isOpen() ? target : null;
+    }
+
+    /** Whether {@code a} is a better stack target than {@code b}: higher count, then newer. */
+    private static boolean betterTarget(Report a, Report b) {
+        if (a.count != b.count) return a.count > b.count;
+        return a.timestamp > b.timestamp;
     }
-    private boolean equalsCI(String a, String b) {
-        if (a == null) return b == null || b.isEmpty();
-        if (b == null) return a.isEmpty();
-        return a.equalsIgnoreCase(b);
+
+    /** Best open report among {@code ids}, or null; only used when the current target closes. */
+    private Report bestTarget(long[] ids) {
+        Report best = null;
+        for (long id : ids) {
+            Report r = reports.get(id);
+            if (r == null || !r.isOpen()) continue;
+            if (best == null || betterTarget(r, best)) best = r;
+        }
+        return best;
     }
 
     /* =========================
               PERSISTENCE
        ========================= */
 
-    private void loadAll() throws Exception {
+    private void loadAll(boolean lazyMode) throws Exception {
         long maxId = 0;
-        openReportsByReported.clear();
-        List<StoredReportPayload> payloads = storage.loadAll();
-        for (StoredReportPayload payload : payloads) {
-            try {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> m = yaml.load(payload.yaml());
-                if (m == null) continue;
-                Report r = fromMap(m);
-                if (r != null) {
-                    reports.put(r.id, r);
-                    maxId = Math.max(maxId, r.id);
-                    long ca = getLong(m.get("closedAt"), 0L);
-                    if (ca > 0) closedAtById.put(r.id, ca);
-                    lastUpdateMillis.put(r.id, Math.max(r.timestamp, ca));
-                    if (r.isOpen()) {
-                        indexOpenReport(r);
-                    }
+        for (IdIndex index : List.of(openByReported, openByReporter, openByAssignee, openByType, openByTypeCategory,
+                openByStackKey)) {
+            index.clear();
+        }
+        stackTargets.clear();
+        if (lazyMode) {
+            for (ReportIndexEntry e : storage.loadIndex()) {
+                maxId = Math.max(maxId, e.id());
+                if (!e.isOpen()) {
+                    indexClosed(e);
+                    searchIndex.add(e.id(), e.reported());
                 }
-            } catch (Exception ex) {
-                log.warn("Failed to decode report #{}: {}", payload.id(), ex.toString());
+            }
+        }
+        long started = System.nanoTime();
+        // backends read and decode in parallel (storage.load-threads); merge into the indexes here
+        List<StoredReportPayload> payloads = lazyMode ? storage.loadOpen() : storage.loadAll();
+        for (StoredReportPayload payload : payloads) {
+            Report r = payload.report();
+            if (r == null || r.id <= 0) continue;
+            long ca = payload.closedAt();
+            if (r.chat == null) r.chat = new ChatLog();
+            r.lastUpdate = Math.max(r.timestamp, ca);
+            spillLoadedChat(r);
+            // publish before indexing: the priority index reads snapshots under its own lock
+            r.publish();
+            reports.put(r.id, r);
+            indexSearchable(r);
+            maxId = Math.max(maxId, r.id);
+            if (!r.isOpen()) {
+                indexClosed(ReportIndexEntry.of(r, ca));
+            }
+            if (r.isOpen()) {
+                indexOpenReport(r);
             }
         }
         nextId.set(Math.max(nextId.get(), maxId + 1));
-        log.info("Loaded {} reports (nextId={}) via {} storage", reports.size(), nextId.get(), storage.backendKey());
+        long tookMs = Math.max(1, (System.nanoTime() - started) / 1_000_000L);
+        if (lazyMode) {
+            log.info("Loaded {} open reports and indexed {} closed (nextId={}) via {} storage",
+                    reports.size(), closedIndex.size(), nextId.get(), storage.backendKey());
+        } else {
+            log.info("Loaded {} reports (nextId={}) via {} storage", reports.size(), nextId.get(), storage.backendKey());
+        }
+        log.info("Report load took {} ms on {} thread(s) ({} reports/s)",
+                tookMs, storage.loadParallelism(),
+                payloads.size() * 1000L / tookMs);
     }
 
-    private void trySave(Report r) {
-        try { saveOne(r); }
-        catch (Exception e) { log.warn("Failed to save report #{}: {}", r.id, e.toString()); }
+    /** Persist a metadata change (status, assignee, count, ...). */
+    private CompletableFuture<Void> trySave(Report r) {
+        if (writeBehind != null) {
+            return writeBehind.mark(r.id);
+        }
+        return submitSave(r.id, true, -1);
     }
 
-    private void saveOne(Report r) throws Exception {
-        Map<String, Object> m = toMap(r);
-        String yamlPayload = yaml.dump(m);
-        storage.save(r.id, yamlPayload);
-    }
-
-    private Map<String, Object> toMap(Report r) {
-        Map<String, Object> m = new LinkedHashMap<>();
-        m.put("id", r.id);
-        m.put("reporter", nullIfBlank(r.reporter));
-        m.put("reported", nullIfBlank(r.reported));
-        m.put("typeId", r.typeId);
-        m.put("typeDisplay", r.typeDisplay);
-        m.put("categoryId", r.categoryId);
-        m.put("categoryDisplay", r.categoryDisplay);
-        m.put("reason", nullIfBlank(r.reason));
-        m.put("count", r.count);
-        m.put("timestamp", r.timestamp);
-        m.put("status", r.status == null ? ReportStatus.OPEN.name() : r.status.name());
-        m.put("assignee", nullIfBlank(r.assignee));
-        m.put("sourceServer", nullIfBlank(r.sourceServer));
-        long closedAt = closedAtById.getOrDefault(r.id, 0L);
-        m.put("closedAt", closedAt);
-
-        if (r.chat != null && !r.chat.isEmpty()) {
-            List<Map<String, Object>> msgs = new ArrayList<>();
-            for (ChatMessage c : r.chat) {
-                Map<String, Object> cm = new LinkedHashMap<>();
-                cm.put("time", c.time);
-                cm.put("player", c.player);
-                cm.put("server", c.server);
-                cm.put("message", c.message);
-                msgs.add(cm);
-            }
-            m.put("chat", msgs);
+    /** Persist chat appended from line {@code first} on; incremental backends append it without touching metadata. */
+    private CompletableFuture<Void> trySaveChat(Report r, int first) {
+        if (!storage.supportsIncremental()) {
+            return trySave(r);
+        }
+        if (writeBehind != null) {
+            return writeBehind.append(r.id, first);
         }
-        return m;
+        return submitSave(r.id, false, first);
     }
 
-    @SuppressWarnings("unchecked")
-    private Report fromMap(Map<String, Object> m) {
-        try {
-            Report r = new Report();
-            r.id = getLong(m.get("id"), 0L);
-            if (r.id <= 0) return null;
-
-            r.reporter = asStr(m.get("reporter"));
-            r.reported = asStr(m.get("reported"));
-            r.typeId = asStr(m.get("typeId"));
-            r.typeDisplay = asStr(m.get("typeDisplay"));
-            r.categoryId = asStr(m.get("categoryId"));
-            r.categoryDisplay = asStr(m.get("categoryDisplay"));
-            r.reason = asStr(m.get("reason"));
-            r.count = (int) getLong(m.get("count"), 1);
-            r.timestamp = getLong(m.get("timestamp"), System.currentTimeMillis());
-
-            String st = asStr(m.get("status"));
-            r.status = (st == null || st.isBlank()) ? ReportStatus.OPEN : ReportStatus.valueOf(st);
-            r.assignee = asStr(m.get("assignee"));
-            r.sourceServer = asStr(m.get("sourceServer"));
-
-            Object chatObj = m.get("chat");
-            if (chatObj instanceof List<?> list) {
-                if (r.chat == null) r.chat = new ArrayList<>();
-                for (Object o : list) {
-                    if (o instanceof Map<?, ?> mm) {
-                        long t = getLong(mm.get("time"), System.currentTimeMillis());
-                        String pl = asStr(mm.get("player"));
-                        String sv = asStr(mm.get("server"));
-                        String ms = asStr(mm.get("message"));
-                        r.chat.add(new ChatMessage(t, pl, sv, ms));
-                    }
+    /** Persist a freshly created report: metadata plus any initial chat lines. */
+    private CompletableFuture<Void> trySaveNew(Report r) {
+        if (!storage.supportsIncremental()) {
+            return trySave(r);
+        }
+        if (writeBehind != null) {
+            writeBehind.mark(r.id);
+            return writeBehind.append(r.id, 0);
+        }
+        return submitSave(r.id, true, 0);
+    }
+
+    /** Write-through save on the I/O executor, chained behind any save of the same report still running. */
+    private CompletableFuture<Void> submitSave(long id, boolean metadata, int chatFrom) {
+        if (io.isShutdown()) {
+            // late mutation during shutdown: write through on the caller
+            try {
+                persist(id, metadata, chatFrom);
+                return CompletableFuture.completedFuture(null);
+            } catch (Exception e) {
+                log.warn("Failed to save report #{}: {}", id, e.toString());
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        CompletableFuture<Void> saved = inflight.compute(id, (k, prev) -> {
+            CompletableFuture<Void> after = prev == null
+                    ? CompletableFuture.completedFuture(null)
+                    : prev.exceptionally(e -> null);
+            return after.thenRunAsync(() -> {
+                try {
+                    persist(id, metadata, chatFrom);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
                 }
+            }, io);
+        });
+        saved.whenComplete((v, e) -> {
+            inflight.remove(id, saved);
+            if (e != null) {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                log.warn("Failed to save report #{}: {}", id, cause.toString());
             }
-            return r;
-        } catch (Throwable t) {
-            log.warn("Failed to parse report map: {}", t.toString());
-            return null;
+        });
+        return saved;
+    }
+
+    /**
+     * Write-behind flush callback (also used for synchronous saves). Chat is appended from line
+     * {@code chatFrom} (-1 for none) of the latest snapshot; lines already spilled are stored.
+     */
+    private void persist(long id, boolean metadata, int chatFrom) throws Exception {
+        Report r = reports.get(id);
+        if (r == null) return;
+        if (!storage.supportsIncremental()) {
+            saveOne(r);
+            return;
+        }
+        if (metadata) {
+            storage.saveMetadata(snapshot(r, false), closedAtOf(id));
         }
+        if (chatFrom >= 0) {
+            ChatLog chat = r.snapshot().chat();
+            int from = Math.max(chatFrom, chat.spilled());
+            if (from < chat.size()) {
+                storage.appendChat(id, from, chat.view(from, chat.size()));
+            }
+        }
+    }
+
+    private void saveOne(Report r) throws Exception {
+        storage.save(snapshot(r, true), closedAtOf(r.id));
     }
 
-    private Object nullIfBlank(String s) {
-        return (s == null || s.isBlank()) ? null : s;
+    /** Detached copy of a report for the storage layer, built from its latest published snapshot. */
+    private Report snapshot(Report r, boolean withChat) {
+        return r.snapshot().toReport(withChat);
     }
-    private String asStr(Object o) { return o == null ? null : String.valueOf(o); }
-    private long getLong(Object o, long def) {
-        if (o == null) return def;
-        if (o instanceof Number n) return n.longValue();
-        try { return Long.parseLong(String.valueOf(o)); } catch (Exception e) { return def; }
+
+    private long closedAtOf(long id) {
+        ReportIndexEntry closed = closedIndex.get(id);
+        return closed == null ? 0L : closed.closedAt();
     }
 
     private ReportStorage createStorage(Path dataDir, PluginConfig cfg) {
         String mode = normalizeStorageMode(cfg);
+        int threads = ParallelDecoder.threads(cfg == null || cfg.storage == null ? 0 : cfg.storage.loadThreads);
+        ReportCodec codec = ReportCodec.forName(cfg == null || cfg.storage == null ? null : cfg.storage.codec);
         if ("mysql".equals(mode)) {
-            return new MysqlReportStorage(cfg.storage.mysql, log);
+            return new MysqlReportStorage(cfg.storage.mysql, log, codec, threads);
+        }
+        if ("journal".equals(mode)) {
+            PluginConfig.JournalStorageConfig j = cfg.storage.journal;
+            return new JournalReportStorage(dataDir.resolve("journal"), log, codec, j.fsync,
+                    TimeUnit.MINUTES.toMillis(j.snapshotIntervalMinutes), j.snapshotAfterMb * 1024 * 1024);
         }
         Path dir = dataDir.resolve("reports");
-        return new FileReportStorage(dir, log);
+        return new FileReportStorage(dir, log, threads, codec);
     }
 
     private String normalizeStorageMode(PluginConfig cfg) {
@@ -546,44 +1178,85 @@ public class ReportManager {
        ========================= */
 
     public String debugSummary() {
-        long open = reports.values().stream().filter(Report::isOpen).count();
-        long closed = reports.size() - open;
-        long maxId = reports.keySet().stream().mapToLong(Long::longValue).max().orElse(0);
-        return "reports=" + reports.size() + " open=" + open + " closed=" + closed
+        long open = ranked.size();
+        long closed = closedIndex.size();
+        long maxId = nextId.get() - 1;
+        return "reports=" + (open + closed) + " open=" + open + " closed=" + closed
+                + " resident=" + reports.size() + (lazy ? " cachedClosed=" + closedCache.size() : "")
                 + " nextId=" + nextId.get() + " maxId=" + maxId + " now=" + Instant.now();
     }
 
-    private double computePriorityScore(Report r, long now, PluginConfig.PriorityConfig priority) {
+    private static final Comparator<ReportIndexEntry> CLOSED_ORDER =
+            Comparator.comparingLong(ReportIndexEntry::closedAt).thenComparingLong(ReportIndexEntry::id).reversed();
+
+    private static long rescoreIntervalMs(PluginConfig cfg) {
+        long seconds = cfg == null || cfg.priority == null ? 30 : cfg.priority.rescoreIntervalSeconds;
+        return TimeUnit.SECONDS.toMillis(Math.max(1, seconds));
+    }
+
+    /** Ranking for {@link PriorityIndex}, bound to one config snapshot. */
+    private final class ConfigRanking implements PriorityIndex.Ranking {
+        private final PluginConfig.PriorityConfig priority;
+        private final boolean oldestFirst;
+
+        ConfigRanking(PluginConfig cfg) {
+            this.priority = cfg == null ? null : cfg.priority;
+            this.oldestFirst = cfg != null && "oldest".equalsIgnoreCase(cfg.tieBreaker);
+        }
+
+        private boolean scored() {
+            return priority != null && priority.enabled;
+        }
+
+        @Override
+        public double score(Report r, long at) {
+            // fallback without priority scoring: stack count, then the configured tie-breaker
+            return scored() ? computePriorityScore(r.snapshot(), at, priority) : r.count;
+        }
+
+        @Override
+        public long tieKey(Report r) {
+            return !scored() && oldestFirst ? -r.timestamp : r.timestamp;
+        }
+
+        @Override
+        public boolean timeDependent() {
+            return scored() && (priority.useRecency || priority.useAging || priority.useSlaBreach);
+        }
+    }
+
+    private double computePriorityScore(ReportSnapshot r, long now, PluginConfig.PriorityConfig priority) {
         return computePriorityBreakdown(r, now, priority, false).total;
     }
 
     public PriorityBreakdown debugPriority(Report r) {
         if (r == null) return PriorityBreakdown.disabled(config.tieBreaker);
-        return computePriorityBreakdown(r, System.currentTimeMillis(), config.priority, true);
+        return computePriorityBreakdown(r.snapshot(), System.currentTimeMillis(), config.priority, true);
     }
 
-    private PriorityBreakdown computePriorityBreakdown(Report r, long now, PluginConfig.PriorityConfig priority, boolean detailed) {
+    private PriorityBreakdown computePriorityBreakdown(ReportSnapshot r, long now, PluginConfig.PriorityConfig priority, boolean detailed) {
         if (priority == null || !priority.enabled) {
             return PriorityBreakdown.disabled(config.tieBreaker);
         }
 
         List<PriorityBreakdown.Component> details = detailed ? new ArrayList<>() : null;
         double total = 0d;
+        String key = null; // "typeId/categoryId", shared by severity and SLA
 
         if (priority.useCount) {
-            double value = Math.max(1, r.count);
+            double value = Math.max(1, r.count());
             double contribution = priority.weightCount * value;
             total += contribution;
             if (details != null) {
-                String reason = (r.count <= 1)
+                String reason = (r.count() <= 1)
                         ? "Single report"
-                        : r.count + " reports stacked";
+                        : r.count() + " reports stacked";
                 details.add(new PriorityBreakdown.Component("Count", priority.weightCount, value, contribution, reason));
             }
         }
 
         if (priority.useRecency) {
-            long last = lastUpdateMillis.getOrDefault(r.id, r.timestamp);
+            long last = r.lastUpdate();
             long age = Math.max(0, now - last);
             double tau = priority.tauMs <= 0 ? 1d : priority.tauMs;
             double recency = Math.exp(-age / tau);
@@ -596,8 +1269,7 @@ public class ReportManager {
         }
 
         if (priority.useSeverity) {
-            String key = (r.typeId == null ? "" : r.typeId.toLowerCase(Locale.ROOT)) + "/"
-                    + (r.categoryId == null ? "" : r.categoryId.toLowerCase(Locale.ROOT));
+            key = priorityKey(r);
             double sev = priority.severityByKey.getOrDefault(key, 1d);
             double contribution = priority.weightSeverity * sev;
             total += contribution;
@@ -608,7 +1280,8 @@ public class ReportManager {
         }
 
         if (priority.useEvidence) {
-            int lines = (r.chat == null) ? 0 : r.chat.size();
+            // attached conversation shows what the player replied to; it is not evidence
+            int lines = r.chat().size() - r.chat().contextLines();
             boolean hasEvidence = lines > 0;
             double value = hasEvidence ? Math.min(1d, lines / 10.0) : 0d;
             double contribution = priority.weightEvidence * value;
@@ -620,18 +1293,18 @@ public class ReportManager {
         }
 
         if (priority.useUnassigned) {
-            boolean unassigned = r.assignee == null || r.assignee.isBlank();
+            boolean unassigned = r.assignee() == null || r.assignee().isBlank();
             double value = unassigned ? 1d : 0d;
             double contribution = priority.weightUnassigned * value;
             total += contribution;
             if (details != null) {
-                String reason = unassigned ? "Unassigned" : "Assigned to " + r.assignee;
+                String reason = unassigned ? "Unassigned" : "Assigned to " + r.assignee();
                 details.add(new PriorityBreakdown.Component("Unassigned", priority.weightUnassigned, value, contribution, reason));
             }
         }
 
         if (priority.useAging) {
-            long ageMs = Math.max(0, now - r.timestamp);
+            long ageMs = Math.max(0, now - r.timestamp());
             double aging = Math.log1p(ageMs / 60_000d);
             double contribution = priority.weightAging * aging;
             total += contribution;
@@ -642,8 +1315,7 @@ public class ReportManager {
         }
 
         if (priority.useSlaBreach) {
-            String key = (r.typeId == null ? "" : r.typeId.toLowerCase(Locale.ROOT)) + "/"
-                    + (r.categoryId == null ? "" : r.categoryId.toLowerCase(Locale.ROOT));
+            if (key == null) key = priorityKey(r);
             Integer sla = priority.slaMinutes.get(key);
             double contribution = 0d;
             double value = 0d;
@@ -651,7 +1323,7 @@ public class ReportManager {
             if (sla == null || sla <= 0) {
                 reason = "No SLA configured for " + (key.isBlank() ? "default" : key);
             } else {
-                double ageMinutes = Math.max(0d, (now - r.timestamp) / 60_000d);
+                double ageMinutes = Math.max(0d, (now - r.timestamp()) / 60_000d);
                 value = ageMinutes <= sla ? 0d : Math.min(1d, (ageMinutes - sla) / sla);
                 contribution = priority.weightSlaBreach * value;
                 reason = "Age " + formatDouble(ageMinutes) + "m vs SLA " + sla + "m";
@@ -666,6 +1338,11 @@ public class ReportManager {
         return new PriorityBreakdown(true, total, out, config.tieBreaker);
     }
 
+    private static String priorityKey(ReportSnapshot r) {
+        return (r.typeId() == null ? "" : r.typeId().toLowerCase(Locale.ROOT)) + "/"
+                + (r.categoryId() == null ? "" : r.categoryId().toLowerCase(Locale.ROOT));
+    }
+
     private static String formatDuration(long millis) {
         long seconds = Math.max(0, millis / 1000);
         long minutes = seconds / 60;
@@ -0,0 +1,29 @@
+package com.example.reportsystem.service;
+
+import com.example.reportsystem.model.Report;
+
+import java.util.List;
+
+/**
+ * One page of an ordered report query, plus where the next page starts.
+ *
+ * Passing {@code next} back for the following page resumes right after the last row instead of
+ * selecting (and discarding) every row of the earlier pages again. {@code next} is null on the
+ * last page.
+ */
+public record ReportPage(List<Report> rows, Cursor next) {
+
+    /**
+     * Sort key of the last row handed out: open queue (score, tie-break, id), closed history
+     * (0, closedAt, id). Only meaningful to the query that produced it, and only while the
+     * ordering is still in the same {@code epoch}; the open queue re-scores everything now and
+     * then, and a cursor from before that is ignored in favour of the page offset.
+     */
+    public record Cursor(double primary, long secondary, long id, long epoch) {
+
+        /** A cursor over an ordering that is never re-scored as a whole (epoch 0). */
+        public Cursor(double primary, long secondary, long id) {
+            this(primary, secondary, id, 0L);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.reportsystem.service;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Trigram inverted index for {@code /reports search}.
+ *
+ * Each report's searchable text (lowercased) is split into 3-character grams; every gram maps
+ * (packed into a long key, so gram keys are not boxed) to a sorted array of report ids. A
+ * query walks the rarest of its grams' lists from the highest id down and checks each id against
+ * the other lists; the caller verifies candidates with a real substring check and asks for more
+ * only until it has its top N, so the full intersection is never built.
+ *
+ * Searchable fields only ever grow (a stacked report gets more reason text, nothing is removed),
+ * so the index is add-only: no per-report state is kept and re-indexing a report just adds the
+ * grams it did not have.
+ */
+public final class SearchIndex {
+
+    public static final int GRAM = 3;
+
+    /** Sorted, duplicate-free ids; appends are O(1) because new reports get the highest id. */
+    private static final class Postings {
+        long[] ids = new long[4];
+        int size;
+
+        void add(long id) {
+            if (size == 0 || id > ids[size - 1]) {
+                if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+                ids[size++] = id;
+                return;
+            }
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) return;
+            at = -at - 1;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+
+    private final LongMap<Postings> grams = new LongMap<>();
+
+    /** Index (or extend the index of) report {@code id} with the given field values. */
+    public synchronized void add(long id, String... fields) {
+        if (id <= 0) return;
+        for (String field : fields) {
+            if (field == null || field.length() < GRAM) continue;
+            String text = field.toLowerCase(Locale.ROOT);
+            for (int i = 0; i + GRAM <= text.length(); i++) {
+                long key = key(text, i);
+                Postings p = grams.get(key);
+                if (p == null) grams.put(key, p = new Postings());
+                p.add(id);
+            }
+        }
+    }
+
+    /**
+     * Up to {@code max} ids below {@code below} whose text contains every gram of {@code query}
+     * (lowercased, at least {@link #GRAM} chars), highest first. Pass the last id of one batch as
+     * {@code below} to get the next. Candidates still need verifying: sharing grams is not a
+     * substring match.
+     */
+    public synchronized long[] candidates(String query, long below, int max) {
+        int n = query.length() - GRAM + 1;
+        if (n <= 0) throw new IllegalArgumentException("query shorter than " + GRAM + " chars");
+        Postings[] lists = new Postings[n];
+        Postings rarest = null;
+        for (int i = 0; i < n; i++) {
+            Postings p = grams.get(key(query, i));
+            if (p == null) return new long[0];
+            lists[i] = p;
+            if (rarest == null || p.size < rarest.size) rarest = p;
+        }
+        int at = Arrays.binarySearch(rarest.ids, 0, rarest.size, below);
+        int i = (at >= 0 ? at : -at - 1) - 1;
+        long[] out = new long[Math.max(0, Math.min(max, i + 1))];
+        int count = 0;
+        outer:
+        for (; i >= 0 && count < out.length; i--) {
+            long id = rarest.ids[i];
+            for (Postings p : lists) {
+                if (p != rarest && !p.contains(id)) continue outer;
+            }
+            out[count++] = id;
+        }
+        return count == out.length ? out : Arrays.copyOf(out, count);
+    }
+
+    /** Number of distinct grams (for debug output). */
+    public synchronized int size() {
+        return grams.size();
+    }
+
+    private static long key(String s, int at) {
+        return ((long) s.charAt(at) << 32) | ((long) s.charAt(at + 1) << 16) | s.charAt(at + 2);
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.reportsystem.storage;
+
+import com.example.reportsystem.model.ChatLog;
+import com.example.reportsystem.model.ChatMessage;
+import com.example.reportsystem.model.Report;
+import com.example.reportsystem.model.ReportStatus;
+import com.example.reportsystem.util.Interner;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact versioned binary report format.
+ *
+ * <pre>
+ * "RSB" version:u8
+ * flags:varint                      bit 0 = chat present, bit 1 = chat has context lines
+ * strings:varint { len:varint utf8 } string table, every distinct string once
+ * id:varlong
+ * reporter reported typeId typeDisplay categoryId categoryDisplay reason assignee sourceServer
+ *                                   string refs (varint, 0 = null, n = table[n - 1])
+ * count:varint timestamp:varlong status:u8 closedAt:varlong
+ * [chat] n:varint { dt:zigzag varlong, player ref, server ref, message ref }
+ *                                   dt is relative to the previous line (first: timestamp)
+ * [context] k:varint { gap:varint } indices of the context lines, each as the number of lines
+ *                                   skipped since the previous one
+ * </pre>
+ */
+public final class BinaryReportCodec implements ReportCodec {
+
+    private static final byte[] MAGIC = {'R', 'S', 'B'};
+    private static final int VERSION = 1;
+    private static final int FLAG_CHAT = 1;
+    private static final int FLAG_CONTEXT = 2;
+
+    BinaryReportCodec() {}
+
+    @Override
+    public String name() {
+        return "binary";
+    }
+
+    @Override
+    public String fileExtension() {
+        return ".bin";
+    }
+
+    @Override
+    public boolean accepts(byte[] data) {
+        return data != null && data.length > MAGIC.length
+                && data[0] == MAGIC[0] && data[1] == MAGIC[1] && data[2] == MAGIC[2];
+    }
+
+    @Override
+    public byte[] encode(Report r, long closedAt, boolean withChat) {
+        List<ChatMessage> chat = withChat && r.chat != null ? r.chat.view(0, r.chat.size()) : List.of();
+        StringTable strings = new StringTable();
+        int[] refs = {
+                strings.ref(nullIfBlank(r.reporter)),
+                strings.ref(nullIfBlank(r.reported)),
+                strings.ref(r.typeId),
+                strings.ref(r.typeDisplay),
+                strings.ref(r.categoryId),
+                strings.ref(r.categoryDisplay),
+                strings.ref(nullIfBlank(r.reason)),
+                strings.ref(nullIfBlank(r.assignee)),
+                strings.ref(nullIfBlank(r.sourceServer))
+        };
+        int[] chatRefs = new int[chat.size() * 3];
+        int contextLines = 0;
+        for (int i = 0; i < chat.size(); i++) {
+            ChatMessage c = chat.get(i);
+            chatRefs[i * 3] = strings.ref(c.player);
+            chatRefs[i * 3 + 1] = strings.ref(c.server);
+            chatRefs[i * 3 + 2] = strings.ref(c.message);
+            if (c.context) contextLines++;
+        }
+
+        Out out = new Out(64 + strings.bytes + chat.size() * 8);
+        out.bytes(MAGIC);
+        out.u8(VERSION);
+        out.varint((chat.isEmpty() ? 0 : FLAG_CHAT) | (contextLines == 0 ? 0 : FLAG_CONTEXT));
+        out.varint(strings.list.size());
+        for (byte[] s : strings.list) {
+            out.varint(s.length);
+            out.bytes(s);
+        }
+        out.varlong(r.id);
+        for (int ref : refs) out.varint(ref);
+        out.varint(Math.max(0, r.count));
+        out.varlong(r.timestamp);
+        out.u8(r.status == null ? 0 : r.status.ordinal());
+        out.varlong(closedAt);
+        if (!chat.isEmpty()) {
+            out.varint(chat.size());
+            long prev = r.timestamp;
+            for (int i = 0; i < chat.size(); i++) {
+                long t = chat.get(i).time;
+                out.zigzag(t - prev);
+                prev = t;
+                out.varint(chatRefs[i * 3]);
+                out.varint(chatRefs[i * 3 + 1]);
+                out.varint(chatRefs[i * 3 + 2]);
+            }
+        }
+        if (contextLines > 0) {
+            out.varint(contextLines);
+            int next = 0;
+            for (int i = 0; i < chat.size(); i++) {
+                if (!chat.get(i).context) continue;
+                out.varint(i - next);
+                next = i + 1;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public StoredReportPayload decode(byte[] data) throws IOException {
+        if (!accepts(data)) throw new IOException("Not a binary report document");
+        In in = new In(data, MAGIC.length);
+        int version = in.u8();
+        if (version != VERSION) throw new IOException("Unsupported binary report version " + version);
+        int flags = in.varint();
+
+        int n = in.count(1); // each entry has at least its length byte
+        String[] table = new String[n];
+        for (int i = 0; i < n; i++) {
+            table[i] = in.string(in.varint());
+        }
+
+        Report r = new Report();
+        r.id = in.varlong();
+        if (r.id <= 0) return null;
+        r.reporter = in.ref(table);
+        r.reported = in.ref(table);
+        r.typeId = Interner.intern(in.ref(table));
+        r.typeDisplay = Interner.intern(in.ref(table));
+        r.categoryId = Interner.intern(in.ref(table));
+        r.categoryDisplay = Interner.intern(in.ref(table));
+        r.reason = in.ref(table);
+        r.assignee = Interner.intern(in.ref(table));
+        r.sourceServer = Interner.intern(in.ref(table));
+        r.count = in.varint();
+        r.timestamp = in.varlong();
+        int status = in.u8();
+        ReportStatus[] statuses = ReportStatus.values();
+        if (status >= statuses.length) throw new IOException("Unknown report status " + status);
+        r.status = statuses[status];
+        long closedAt = in.varlong();
+
+        if ((flags & FLAG_CHAT) != 0) {
+            ChatMessage[] lines = new ChatMessage[in.count(4)]; // time delta and three refs
+            long t = r.timestamp;
+            for (int i = 0; i < lines.length; i++) {
+                t += in.zigzag();
+                lines[i] = new ChatMessage(t, Interner.intern(in.ref(table)), Interner.intern(in.ref(table)), in.ref(table));
+            }
+            if ((flags & FLAG_CONTEXT) != 0) {
+                int k = in.count(1);
+                int next = 0;
+                for (int i = 0; i < k; i++) {
+                    int at = next + in.varint();
+                    if (at < next || at >= lines.length) throw new IOException("Context line " + at + " out of range");
+                    lines[at].context = true;
+                    next = at + 1;
+                }
+            }
+            r.chat = new ChatLog(Arrays.asList(lines));
+        }
+        return new StoredReportPayload(r.id, r, closedAt);
+    }
+
+    private static String nullIfBlank(String s) {
+        return (s == null || s.isBlank()) ? null : s;
+    }
+
+    /* ---------------- encoding helpers ---------------- */
+
+    private static final class StringTable {
+        final Map<String, Integer> index = new HashMap<>();
+        final List<byte[]> list = new ArrayList<>();
+        int bytes;
+
+        int ref(String s) {
+            if (s == null) return 0;
+            Integer existing = index.get(s);
+            if (existing != null) return existing;
+            byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+            list.add(utf8);
+            bytes += utf8.length + 2;
+            int ref = list.size();
+            index.put(s, ref);
+            return ref;
+        }
+    }
+
+    private static final class Out {
+        byte[] buf;
+        int len;
+
+        Out(int capacity) {
+            buf = new byte[Math.max(16, capacity)];
+        }
+
+        void ensure(int extra) {
+            if (len + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + extra));
+            }
+        }
+
+        void u8(int v) {
+            ensure(1);
+            buf[len++] = (byte) v;
+        }
+
+        void bytes(byte[] b) {
+            ensure(b.length);
+            System.arraycopy(b, 0, buf, len, b.length);
+            len += b.length;
+        }
+
+        void varint(int v) {
+            varlong(v & 0xFFFFFFFFL);
+        }
+
+        void varlong(long v) {
+            ensure(10);
+            while ((v & ~0x7FL) != 0) {
+                buf[len++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[len++] = (byte) v;
+        }
+
+        void zigzag(long v) {
+            varlong((v << 1) ^ (v >> 63));
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, len);
+        }
+    }
+
+    private static final class In {
+        final byte[] buf;
+        int pos;
+
+        In(byte[] buf, int pos) {
+            this.buf = buf;
+            this.pos = pos;
+        }
+
+        int u8() throws IOException {
+            if (pos >= buf.length) throw new IOException("Truncated binary report");
+            return buf[pos++] & 0xFF;
+        }
+
+        int varint() throws IOException {
+            long v = varlong();
+            if (v < 0 || v > Integer.MAX_VALUE) throw new IOException("Corrupt binary report (varint out of range)");
+            return (int) v;
+        }
+
+        /**
+         * An element count, checked against the bytes left (each element takes at least
+         * {@code minBytes}) so a corrupt count fails before anything is allocated for it.
+         */
+        int count(int minBytes) throws IOException {
+            int n = varint();
+            if (n > (buf.length - pos) / minBytes) throw new IOException("Truncated binary report (count " + n + ")");
+            return n;
+        }
+
+        long varlong() throws IOException {
+            long v = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = u8();
+                v |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return v;
+            }
+            throw new IOException("Corrupt binary report (varint too long)");
+        }
+
+        long zigzag() throws IOException {
+            long v = varlong();
+            return (v >>> 1) ^ -(v & 1);
+        }
+
+        String string(int length) throws IOException {
+            if (length > buf.length - pos) throw new IOException("Truncated binary report");
+            String s = new String(buf, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return s;
+        }
+
+        String ref(String[] table) throws IOException {
+            int ref = varint();
+            if (ref == 0) return null;
+            if (ref > table.length) throw new IOException("Corrupt binary report (bad string ref)");
+            return table[ref - 1];
+        }
+    }
+}
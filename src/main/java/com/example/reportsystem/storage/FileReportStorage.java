@@ -1,22 +1,75 @@
 package com.example.reportsystem.storage;
 
+import com.example.reportsystem.model.ChatLog;
+import com.example.reportsystem.model.ChatMessage;
+import com.example.reportsystem.model.Report;
+import com.example.reportsystem.util.Interner;
+import com.google.gson.Gson;
 import org.slf4j.Logger;
 
-import java.io.BufferedWriter;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
 
+/**
+ * Filesystem backend.
+ *
+ * Each report is split in two files:
+ * - {@code <id>.yml} or {@code <id>.bin}: report metadata written by the configured
+ *   {@link ReportCodec}, rewritten (tmp + atomic move) only when metadata changes. Either
+ *   format is read regardless of the configured codec; the other one is removed on rewrite.
+ * - {@code <id>.chat}: append-only chat evidence, one framed record per line:
+ *   {@code <byteLength>:<crc32 hex>:<json>}. Records with a bad length or checksum
+ *   (e.g. a torn write after a crash) are dropped on load.
+ *
+ * Chat records are indexed by line, so {@link #loadChat} can page old lines back in. Appends
+ * skip lines the file already holds, and a failed append is cut back off the file, so a retry
+ * never duplicates lines.
+ *
+ * Older {@code <id>.yml} files with embedded chat are split on first load.
+ *
+ * {@code index.log} holds one framed {@link ReportIndexEntry} per status/target change so lazy
+ * startup can find open reports without decoding every report file. It is compacted on each start;
+ * reports missing from it (e.g. crash between the two writes) are re-indexed from their file.
+ */
 public class FileReportStorage implements ReportStorage {
 
+    private static final String CHAT_EXT = ".chat";
+    private static final String INDEX_FILE = "index.log";
+
     private final Path directory;
     private final Logger log;
+    private final int loadThreads;
+    private volatile int loadParallelism = 1;
+    private final ReportCodec codec;
+    private final Gson gson = new Gson();
+    /** Last index entry written per report; appends only happen when an entry changes. */
+    private final Map<Long, ReportIndexEntry> index = new ConcurrentHashMap<>();
+    /** Chat records known to be in each {@code <id>.chat}; counted from the file on first use. */
+    private final Map<Long, Integer> chatLines = new ConcurrentHashMap<>();
 
     public FileReportStorage(Path directory, Logger log) {
+        this(directory, log, 1, ReportCodec.YAML);
+    }
+
+    /**
+     * @param loadThreads threads used to read and decode report files at startup
+     * @param codec       format for newly written metadata files
+     */
+    public FileReportStorage(Path directory, Logger log, int loadThreads, ReportCodec codec) {
         this.directory = directory;
         this.log = log;
+        this.loadThreads = Math.max(1, loadThreads);
+        this.codec = codec;
     }
 
     @Override
@@ -27,38 +80,352 @@ public class FileReportStorage implements ReportStorage {
     }
 
     @Override
-    public List<StoredReportPayload> loadAll() throws IOException {
-        List<StoredReportPayload> payloads = new ArrayList<>();
-        if (!Files.isDirectory(directory)) {
-            return payloads;
+    public List<StoredReportPayload> loadAll() throws Exception {
+        List<StoredReportPayload> payloads = loadParallel(listReportFiles());
+        for (StoredReportPayload payload : payloads) {
+            index.put(payload.id(), ReportIndexEntry.of(payload.report(), payload.closedAt()));
+        }
+        rewriteIndex();
+        return payloads;
+    }
+
+    @Override
+    public boolean supportsLazyLoading() {
+        return true;
+    }
+
+    @Override
+    public List<ReportIndexEntry> loadIndex() throws IOException {
+        index.clear();
+        Map<Long, Path> onDisk = listReportFiles();
+
+        Path file = directory.resolve(INDEX_FILE);
+        int records = 0;
+        if (Files.exists(file)) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isEmpty()) continue;
+                    records++;
+                    ReportIndexEntry e = unframe(line, ReportIndexEntry.class);
+                    if (e != null && e.status() != null && onDisk.containsKey(e.id())) {
+                        index.put(e.id(), e); // later records win
+                    }
+                }
+            }
+        }
+
+        int reindexed = 0;
+        for (Map.Entry<Long, Path> e : onDisk.entrySet()) {
+            if (index.containsKey(e.getKey())) continue;
+            try {
+                StoredReportPayload payload = decode(e.getValue());
+                if (payload == null) continue;
+                index.put(e.getKey(), ReportIndexEntry.of(payload.report(), payload.closedAt()));
+                reindexed++;
+            } catch (Exception ex) {
+                log.warn("Failed to index report file {}: {}", e.getValue().getFileName(), ex.toString());
+            }
+        }
+        if (reindexed > 0) {
+            log.info("Indexed {} report file(s) missing from {}", reindexed, INDEX_FILE);
+        }
+        if (reindexed > 0 || records != index.size()) {
+            rewriteIndex();
+        }
+        return new ArrayList<>(index.values());
+    }
+
+    @Override
+    public List<StoredReportPayload> loadOpen() throws Exception {
+        Map<Long, Path> open = new HashMap<>();
+        for (ReportIndexEntry e : index.values()) {
+            if (!e.isOpen()) continue;
+            Path file = existingMetaFile(e.id());
+            if (file != null) open.put(e.id(), file);
+        }
+        return loadParallel(open);
+    }
+
+    @Override
+    public StoredReportPayload loadById(long id) throws IOException {
+        Path file = existingMetaFile(id);
+        return file == null ? null : load(id, file);
+    }
+
+    @Override
+    public synchronized void save(Report report, long closedAt) throws IOException {
+        writeMetadata(report, closedAt);
+        rewriteChat(report.id, report.chat == null ? List.of() : report.chat.view(0, report.chat.size()));
+        updateIndex(report, closedAt);
+    }
+
+    @Override
+    public boolean supportsIncremental() {
+        return true;
+    }
+
+    @Override
+    public synchronized void saveMetadata(Report report, long closedAt) throws IOException {
+        writeMetadata(report, closedAt);
+        updateIndex(report, closedAt);
+    }
+
+    @Override
+    public synchronized void appendChat(long id, int from, List<ChatMessage> lines) throws IOException {
+        if (lines == null || lines.isEmpty()) return;
+        int stored = storedChatLines(id);
+        int skip = Math.max(0, stored - from);
+        if (skip >= lines.size()) return;
+        StringBuilder sb = new StringBuilder((lines.size() - skip) * 96);
+        for (ChatMessage line : lines.subList(skip, lines.size())) {
+            sb.append(frame(line));
+        }
+        Path file = chatFile(id);
+        long before = Files.exists(file) ? Files.size(file) : 0L;
+        try (OutputStream out = Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE)) {
+            out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // cut the partial write off so the retry starts on a clean line
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                ch.truncate(before);
+            } catch (IOException ignored) {
+                chatLines.remove(id); // recount on the next append
+            }
+            throw e;
+        }
+        chatLines.put(id, stored + lines.size() - skip);
+    }
+
+    @Override
+    public boolean supportsChatPaging() {
+        return true;
+    }
+
+    /** Records before {@code from} are skipped without decoding them. */
+    @Override
+    public List<ChatMessage> loadChat(long id, int from, int to) throws IOException {
+        List<ChatMessage> out = new ArrayList<>(Math.max(0, to - from));
+        Path file = chatFile(id);
+        if (from >= to || !Files.exists(file)) return out;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int index = 0;
+            while (index < to && (line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                if (index++ < from) continue;
+                ChatMessage msg = unframe(line, ChatMessage.class);
+                if (msg == null) continue; // torn tail being appended right now
+                msg.player = Interner.intern(msg.player);
+                msg.server = Interner.intern(msg.server);
+                out.add(msg);
+            }
         }
+        return out;
+    }
 
-        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.yml")) {
+    @Override
+    public String backendKey() {
+        return "filesystem";
+    }
+
+    /* ---------------- loading ---------------- */
+
+    /** Metadata file per report id; if both formats exist (crash mid-switch) the newer one wins. */
+    private Map<Long, Path> listReportFiles() throws IOException {
+        Map<Long, Path> files = new HashMap<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        String glob = "*{" + ReportCodec.YAML.fileExtension() + "," + ReportCodec.BINARY.fileExtension() + "}";
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
             for (Path file : stream) {
                 String name = file.getFileName().toString();
-                String base = name.substring(0, name.length() - 4); // strip .yml
                 long id;
                 try {
-                    id = Long.parseLong(base);
+                    id = Long.parseLong(name.substring(0, name.lastIndexOf('.')));
                 } catch (NumberFormatException ex) {
                     log.warn("Skipping malformed report file {}", name);
                     continue;
                 }
-                String yaml = Files.readString(file, StandardCharsets.UTF_8);
-                payloads.add(new StoredReportPayload(id, yaml));
+                files.merge(id, file, FileReportStorage::newer);
             }
         }
-        return payloads;
+        return files;
+    }
+
+    /** Read and decode report files on {@code loadThreads} threads; unreadable files are logged and skipped. */
+    private List<StoredReportPayload> loadParallel(Map<Long, Path> files) throws Exception {
+        List<StoredReportPayload> out = new ArrayList<>(files.size());
+        try (ParallelDecoder decoder = new ParallelDecoder(loadThreads)) {
+            decoder.decode(new ArrayList<>(files.entrySet()), e -> {
+                try {
+                    return load(e.getKey(), e.getValue());
+                } catch (Exception ex) {
+                    log.warn("Failed to read report file {}: {}", e.getValue().getFileName(), ex.toString());
+                    return null;
+                }
+            }, out);
+            loadParallelism = decoder.parallelism();
+        }
+        return out;
     }
 
     @Override
-    public void save(long id, String yamlPayload) throws IOException {
-        Path target = directory.resolve(id + ".yml");
+    public int loadParallelism() {
+        return loadParallelism;
+    }
+
+    private StoredReportPayload decode(Path metaFile) throws IOException {
+        byte[] data = Files.readAllBytes(metaFile);
+        if (data.length == 0) return null;
+        return ReportCodec.detect(data).decode(data);
+    }
+
+    private StoredReportPayload load(long id, Path metaFile) throws IOException {
+        StoredReportPayload payload = decode(metaFile);
+        if (payload == null) return null;
+        Report report = payload.report();
+
+        List<ChatMessage> chat = readChat(id);
+        if (report.chat != null && !report.chat.isEmpty()) {
+            // legacy single-file layout: move the embedded chat into the segment log, in front
+            // of anything that was already appended there
+            List<ChatMessage> merged = new ArrayList<>(report.chat.view(0, report.chat.size()));
+            merged.addAll(chat);
+            chat = merged;
+            synchronized (this) {
+                rewriteChat(id, chat);
+                writeMetadata(report, payload.closedAt());
+            }
+        }
+        report.chat = new ChatLog(chat);
+        return payload;
+    }
+
+    private List<ChatMessage> readChat(long id) throws IOException {
+        List<ChatMessage> out = new ArrayList<>();
+        Path file = chatFile(id);
+        if (!Files.exists(file)) return out;
+        int bad = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                ChatMessage msg = unframe(line, ChatMessage.class);
+                if (msg == null) {
+                    bad++;
+                    continue;
+                }
+                msg.player = Interner.intern(msg.player);
+                msg.server = Interner.intern(msg.server);
+                out.add(msg);
+            }
+        }
+        if (bad > 0) {
+            log.warn("Skipped {} corrupt chat record(s) in {}", bad, file.getFileName());
+            // rewrite without the damaged records so later appends start on a clean line
+            synchronized (this) {
+                rewriteChat(id, out);
+            }
+        }
+        return out;
+    }
+
+    /* ---------------- record framing ---------------- */
+
+    private String frame(Object record) {
+        String json = gson.toJson(record);
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        return bytes.length + ":" + Long.toHexString(crc(bytes)) + ":" + json + "\n";
+    }
+
+    private <T> T unframe(String line, Class<T> type) {
+        int a = line.indexOf(':');
+        int b = a < 0 ? -1 : line.indexOf(':', a + 1);
+        if (a <= 0 || b <= a + 1) return null;
+        try {
+            int length = Integer.parseInt(line, 0, a, 10);
+            long crc = Long.parseLong(line, a + 1, b, 16);
+            byte[] bytes = line.substring(b + 1).getBytes(StandardCharsets.UTF_8);
+            if (bytes.length != length || crc(bytes) != crc) return null;
+            return gson.fromJson(new String(bytes, StandardCharsets.UTF_8), type);
+        } catch (RuntimeException ex) {
+            return null;
+        }
+    }
+
+    private static long crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        return crc.getValue();
+    }
+
+    /* ---------------- writing ---------------- */
+
+    private void writeMetadata(Report report, long closedAt) throws IOException {
+        writeAtomically(directory.resolve(report.id + codec.fileExtension()), codec.encode(report, closedAt, false));
+        // drop the file written by the other codec, if any
+        Files.deleteIfExists(directory.resolve(report.id + otherCodec().fileExtension()));
+    }
+
+    private void rewriteChat(long id, List<ChatMessage> chat) throws IOException {
+        chatLines.remove(id);
+        if (chat.isEmpty()) {
+            Files.deleteIfExists(chatFile(id));
+        } else {
+            StringBuilder sb = new StringBuilder(chat.size() * 96);
+            for (ChatMessage line : chat) {
+                sb.append(frame(line));
+            }
+            writeAtomically(chatFile(id), sb.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        chatLines.put(id, chat.size());
+    }
+
+    /** Records in {@code <id>.chat}, counted the way {@link #loadChat} indexes them. Caller holds the lock. */
+    private int storedChatLines(long id) throws IOException {
+        Integer known = chatLines.get(id);
+        if (known != null) return known;
+        int n = 0;
+        Path file = chatFile(id);
+        if (Files.exists(file)) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isEmpty()) n++;
+                }
+            }
+        }
+        chatLines.put(id, n);
+        return n;
+    }
+
+    /** Append an index record if status, target or close time changed. Caller holds the lock. */
+    private void updateIndex(Report report, long closedAt) throws IOException {
+        ReportIndexEntry entry = ReportIndexEntry.of(report, closedAt);
+        if (entry.equals(index.put(report.id, entry))) return;
+        try (OutputStream out = Files.newOutputStream(directory.resolve(INDEX_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE)) {
+            out.write(frame(entry).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private synchronized void rewriteIndex() throws IOException {
+        StringBuilder sb = new StringBuilder(index.size() * 64);
+        for (ReportIndexEntry e : index.values()) {
+            sb.append(frame(e));
+        }
+        writeAtomically(directory.resolve(INDEX_FILE), sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeAtomically(Path target, byte[] content) throws IOException {
         Path temp = target.resolveSibling(target.getFileName() + ".tmp");
 
-        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8,
-                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
-            writer.write(yamlPayload);
+        try (OutputStream out = Files.newOutputStream(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            out.write(content);
         }
 
         try {
@@ -68,8 +435,26 @@ public class FileReportStorage implements ReportStorage {
         }
     }
 
-    @Override
-    public String backendKey() {
-        return "filesystem";
+    private Path existingMetaFile(long id) {
+        Path preferred = directory.resolve(id + codec.fileExtension());
+        if (Files.exists(preferred)) return preferred;
+        Path fallback = directory.resolve(id + otherCodec().fileExtension());
+        return Files.exists(fallback) ? fallback : null;
+    }
+
+    private ReportCodec otherCodec() {
+        return codec == ReportCodec.BINARY ? ReportCodec.YAML : ReportCodec.BINARY;
+    }
+
+    private Path chatFile(long id) {
+        return directory.resolve(id + CHAT_EXT);
+    }
+
+    private static Path newer(Path a, Path b) {
+        try {
+            return Files.getLastModifiedTime(a).compareTo(Files.getLastModifiedTime(b)) >= 0 ? a : b;
+        } catch (IOException e) {
+            return a;
+        }
     }
 }
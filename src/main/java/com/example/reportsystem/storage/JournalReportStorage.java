@@ -0,0 +1,631 @@
+package com.example.reportsystem.storage;
+
+import com.example.reportsystem.model.ChatLog;
+import com.example.reportsystem.model.ChatMessage;
+import com.example.reportsystem.model.Report;
+import com.example.reportsystem.util.Interner;
+import org.slf4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Journal backend: every mutation is appended to a checksummed write-ahead log and a compacted
+ * snapshot bounds how much of it has to be replayed at startup.
+ *
+ * Files (all in one directory):
+ * - {@code journal-<seq>.log}: log segments. Each record is
+ *   {@code length:int crc32:int type:u8 payload}; the CRC covers type and payload. A bad or
+ *   short record (torn write after a crash) ends replay of that segment and is truncated away.
+ * - {@code snapshot.dat}: {@code "RSJS" version:int coveredSeq:long}, one FULL record per report,
+ *   then an END record holding the report count. Segments up to coveredSeq are already folded in.
+ *
+ * Records are capped at {@link #MAX_RECORD} bytes on write as on replay. A report whose FULL
+ * record would exceed it is written as a FULL record without chat followed by CHAT_LINES records,
+ * and a large chat append is split the same way; a single line or metadata record over the cap
+ * is rejected with an IOException instead of being written and then dropped as a torn tail.
+ *
+ * Writes go through one {@link FileChannel}; callers that need durability share a single
+ * {@code force()} (group commit), so a burst of saves costs one fsync instead of one per save.
+ * A write that fails part-way is truncated off the segment. Chat records carry the index of their
+ * first line and replay skips lines the report already has, so a retried append (e.g. after a
+ * failed fsync) never duplicates chat.
+ * Compaction seals the active segment, folds it into a new snapshot off-thread (tmp + atomic move)
+ * and deletes the covered segments.
+ */
+public class JournalReportStorage implements ReportStorage {
+
+    private static final String SNAPSHOT_FILE = "snapshot.dat";
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final byte[] SNAPSHOT_MAGIC = {'R', 'S', 'J', 'S'};
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int MAX_RECORD = 64 * 1024 * 1024;
+    /** CHAT_LINES payload before the lines: id:long from:int n:int */
+    private static final int CHAT_HEADER = 16;
+
+    private static final byte END = 0;
+    /** Report with its whole chat log (replaces everything known about the report). */
+    private static final byte FULL = 1;
+    /** Report metadata only; chat already replayed for the report is kept. */
+    private static final byte META = 2;
+    /** Chat lines appended to one report: index of the first line, then each line with its context flag. */
+    private static final byte CHAT_LINES = 3;
+
+    private final Path directory;
+    private final Logger log;
+    private final ReportCodec codec;
+    private final boolean fsync;
+    private final long snapshotIntervalMs;
+    private final long snapshotAfterBytes;
+
+    private final Object writeLock = new Object();
+    private FileChannel active;
+    private long activeSeq;
+    /** Bytes appended since the last snapshot (sealed segments included). */
+    private long journalBytes;
+    private long written;
+    /** journalBytes at the last rotation, i.e. what the running compaction folds in. */
+    private long rotatedBytes;
+
+    private final Object syncLock = new Object();
+    private long synced;
+    private boolean syncing;
+
+    private final AtomicBoolean compacting = new AtomicBoolean(false);
+    private volatile long lastSnapshotAt = System.currentTimeMillis();
+    private ScheduledExecutorService compactor;
+
+    /**
+     * @param fsync              force the log to disk before a save returns
+     * @param snapshotIntervalMs compact at least this often while the log is non-empty (0 = only by size)
+     * @param snapshotAfterBytes compact once the log has grown by this many bytes
+     */
+    public JournalReportStorage(Path directory, Logger log, ReportCodec codec,
+                                boolean fsync, long snapshotIntervalMs, long snapshotAfterBytes) {
+        this.directory = directory;
+        this.log = log;
+        this.codec = codec;
+        this.fsync = fsync;
+        this.snapshotIntervalMs = Math.max(0, snapshotIntervalMs);
+        this.snapshotAfterBytes = Math.max(1024 * 1024, snapshotAfterBytes);
+    }
+
+    @Override
+    public void init() throws IOException {
+        Files.createDirectories(directory);
+        List<Long> segments = listSegments();
+        long next = segments.isEmpty() ? 1 : segments.get(segments.size() - 1) + 1;
+        synchronized (writeLock) {
+            openSegment(next);
+        }
+        compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ReportSystem-Journal");
+            t.setDaemon(true);
+            return t;
+        });
+        compactor.scheduleWithFixedDelay(this::compactIfDue, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public List<StoredReportPayload> loadAll() throws Exception {
+        long sealed;
+        synchronized (writeLock) {
+            sealed = activeSeq - 1;
+        }
+        long started = System.currentTimeMillis();
+        Map<Long, StoredReportPayload> state = new TreeMap<>();
+        long tail = replay(state, sealed);
+        log.info("Journal replay: {} reports, {} byte(s) of log after snapshot, {} ms",
+                state.size(), tail, System.currentTimeMillis() - started);
+        synchronized (writeLock) {
+            journalBytes += tail;
+        }
+        if (tail >= snapshotAfterBytes) {
+            // Already have the full state in hand; no need to replay again off-thread
+            writeSnapshot(state, sealed);
+            deleteSegmentsUpTo(sealed);
+            synchronized (writeLock) {
+                journalBytes -= tail;
+            }
+        }
+        return new ArrayList<>(state.values());
+    }
+
+    @Override
+    public void save(Report report, long closedAt) throws IOException {
+        append(reportFrames(report, closedAt));
+    }
+
+    @Override
+    public boolean supportsIncremental() {
+        return true;
+    }
+
+    @Override
+    public void saveMetadata(Report report, long closedAt) throws IOException {
+        append(List.of(frame(META, codec.encode(report, closedAt, false))));
+    }
+
+    @Override
+    public void appendChat(long id, int from, List<ChatMessage> messages) throws IOException {
+        if (messages == null || messages.isEmpty()) return;
+        append(chatFrames(id, Math.max(0, from), messages));
+    }
+
+    @Override
+    public String backendKey() {
+        return "journal";
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (compactor != null) {
+            compactor.shutdown();
+            compactor.awaitTermination(30, TimeUnit.SECONDS);
+        }
+        synchronized (writeLock) {
+            if (active != null) {
+                active.force(false);
+                active.close();
+                active = null;
+            }
+        }
+    }
+
+    /* ---------------- writing ---------------- */
+
+    /** Append the records of one save back to back; a failure truncates all of them off again. */
+    private void append(List<ByteBuffer> frames) throws IOException {
+        long ticket;
+        boolean due;
+        synchronized (writeLock) {
+            if (active == null) throw new IOException("Journal is closed");
+            long start = active.size();
+            try {
+                for (ByteBuffer frame : frames) {
+                    while (frame.hasRemaining()) {
+                        active.write(frame);
+                    }
+                }
+            } catch (IOException e) {
+                try {
+                    active.truncate(start);
+                } catch (IOException ignored) {
+                    // replay drops the torn record and everything after it
+                }
+                throw e;
+            }
+            for (ByteBuffer frame : frames) journalBytes += frame.capacity();
+            ticket = ++written;
+            due = journalBytes >= snapshotAfterBytes;
+        }
+        if (fsync) {
+            awaitDurable(ticket);
+        }
+        if (due && compactor != null && !compacting.get()) {
+            try {
+                compactor.execute(this::compactQuietly);
+            } catch (Exception ignored) {
+                // shutting down
+            }
+        }
+    }
+
+    /** Group commit: one caller forces everything written so far, the others wait for it. */
+    private void awaitDurable(long ticket) throws IOException {
+        while (true) {
+            synchronized (syncLock) {
+                while (syncing && synced < ticket) {
+                    try {
+                        syncLock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrupted waiting for journal sync", e);
+                    }
+                }
+                if (synced >= ticket) return;
+                syncing = true;
+            }
+            long target;
+            FileChannel ch;
+            synchronized (writeLock) {
+                target = written;
+                ch = active;
+            }
+            IOException failure = null;
+            try {
+                if (ch == null) throw new IOException("Journal is closed");
+                ch.force(false);
+            } catch (IOException e) {
+                failure = e;
+            }
+            synchronized (syncLock) {
+                syncing = false;
+                if (failure == null) synced = Math.max(synced, target);
+                syncLock.notifyAll();
+            }
+            if (failure != null) throw failure;
+        }
+    }
+
+    /** Seals the active segment and opens the next one; returns the sealed sequence number. */
+    private long rotate() throws IOException {
+        synchronized (syncLock) {
+            while (syncing) {
+                try {
+                    syncLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted waiting for journal sync", e);
+                }
+            }
+            syncing = true;
+        }
+        try {
+            synchronized (writeLock) {
+                if (active == null) throw new IOException("Journal is closed");
+                long sealed = activeSeq;
+                rotatedBytes = journalBytes;
+                active.force(false);
+                active.close();
+                openSegment(sealed + 1);
+                synchronized (syncLock) {
+                    synced = written;
+                }
+                return sealed;
+            }
+        } finally {
+            synchronized (syncLock) {
+                syncing = false;
+                syncLock.notifyAll();
+            }
+        }
+    }
+
+    private void openSegment(long seq) throws IOException {
+        active = FileChannel.open(segmentPath(seq),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        activeSeq = seq;
+    }
+
+    /**
+     * One FULL record for the report, or, when that would exceed {@link #MAX_RECORD}, a FULL
+     * record without chat followed by the chat as CHAT_LINES records.
+     */
+    private List<ByteBuffer> reportFrames(Report report, long closedAt) throws IOException {
+        byte[] full = codec.encode(report, closedAt, true);
+        if (full.length < MAX_RECORD) return List.of(frame(FULL, full));
+        List<ByteBuffer> frames = new ArrayList<>();
+        frames.add(frame(FULL, codec.encode(report, closedAt, false)));
+        frames.addAll(chatFrames(report.id, 0, report.chat.view(0, report.chat.size())));
+        return frames;
+    }
+
+    /** CHAT_LINES records for lines {@code [from, from + messages.size())}, as few as fit under the cap. */
+    private static List<ByteBuffer> chatFrames(long id, int from, List<ChatMessage> messages) throws IOException {
+        List<ByteBuffer> frames = new ArrayList<>(1);
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(messages.size() * 48);
+        ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(line);
+        int first = from;
+        int n = 0;
+        for (ChatMessage c : messages) {
+            line.reset();
+            out.writeLong(c.time);
+            writeString(out, c.player);
+            writeString(out, c.server);
+            writeString(out, c.message);
+            out.writeBoolean(c.context);
+            if (n > 0 && CHAT_HEADER + lines.size() + line.size() >= MAX_RECORD) {
+                frames.add(chatFrame(id, first, n, lines));
+                first += n;
+                n = 0;
+                lines.reset();
+            }
+            line.writeTo(lines);
+            n++;
+        }
+        if (n > 0) frames.add(chatFrame(id, first, n, lines));
+        return frames;
+    }
+
+    private static ByteBuffer chatFrame(long id, int from, int n, ByteArrayOutputStream lines) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(CHAT_HEADER + lines.size());
+        DataOutputStream out = new DataOutputStream(buf);
+        out.writeLong(id);
+        out.writeInt(from);
+        out.writeInt(n);
+        lines.writeTo(out);
+        return frame(CHAT_LINES, buf.toByteArray());
+    }
+
+    /** A checksummed record; payloads replay would reject as too long are refused here. */
+    private static ByteBuffer frame(byte type, byte[] payload) throws IOException {
+        if (payload.length >= MAX_RECORD) {
+            throw new IOException("Journal record of " + payload.length + " bytes exceeds the "
+                    + MAX_RECORD + " byte limit");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload);
+        ByteBuffer buf = ByteBuffer.allocate(9 + payload.length);
+        buf.putInt(payload.length + 1);
+        buf.putInt((int) crc.getValue());
+        buf.put(type);
+        buf.put(payload);
+        buf.flip();
+        return buf;
+    }
+
+    /* ---------------- compaction ---------------- */
+
+    private void compactIfDue() {
+        long pending;
+        synchronized (writeLock) {
+            pending = journalBytes;
+        }
+        if (pending <= 0) return;
+        boolean byTime = snapshotIntervalMs > 0 && System.currentTimeMillis() - lastSnapshotAt >= snapshotIntervalMs;
+        if (byTime || pending >= snapshotAfterBytes) {
+            compactQuietly();
+        }
+    }
+
+    private void compactQuietly() {
+        if (!compacting.compareAndSet(false, true)) return;
+        try {
+            compact();
+        } catch (Exception e) {
+            log.warn("Journal compaction failed: {}", e.toString());
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    private void compact() throws IOException {
+        long started = System.currentTimeMillis();
+        long sealed = rotate();
+        long bytesBefore;
+        synchronized (writeLock) {
+            bytesBefore = rotatedBytes;
+        }
+        Map<Long, StoredReportPayload> state = new TreeMap<>();
+        replay(state, sealed);
+        writeSnapshot(state, sealed);
+        deleteSegmentsUpTo(sealed);
+        synchronized (writeLock) {
+            journalBytes = Math.max(0, journalBytes - bytesBefore);
+        }
+        log.info("Journal compacted: {} reports in snapshot, {} byte(s) of log folded in, {} ms",
+                state.size(), bytesBefore, System.currentTimeMillis() - started);
+    }
+
+    private void writeSnapshot(Map<Long, StoredReportPayload> state, long coveredSeq) throws IOException {
+        Path target = directory.resolve(SNAPSHOT_FILE);
+        Path tmp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_MAGIC.length + 12);
+            header.put(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION).putLong(coveredSeq).flip();
+            writeFully(ch, header);
+            for (StoredReportPayload p : state.values()) {
+                for (ByteBuffer frame : reportFrames(p.report(), p.closedAt())) {
+                    writeFully(ch, frame);
+                }
+            }
+            writeFully(ch, frame(END, ByteBuffer.allocate(4).putInt(state.size()).array()));
+            ch.force(true);
+        }
+        try {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        lastSnapshotAt = System.currentTimeMillis();
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            ch.write(buf);
+        }
+    }
+
+    private void deleteSegmentsUpTo(long seq) throws IOException {
+        for (long s : listSegments()) {
+            if (s <= seq) Files.deleteIfExists(segmentPath(s));
+        }
+    }
+
+    /* ---------------- replay ---------------- */
+
+    /**
+     * Rebuilds report state from the snapshot plus every segment up to {@code lastSeq}.
+     * Returns the number of log bytes replayed on top of the snapshot.
+     */
+    private long replay(Map<Long, StoredReportPayload> state, long lastSeq) throws IOException {
+        long covered = readSnapshot(state);
+        long bytes = 0;
+        for (long seq : listSegments()) {
+            if (seq <= covered) {
+                // left behind by a crash between snapshot and cleanup
+                Files.deleteIfExists(segmentPath(seq));
+                continue;
+            }
+            if (seq > lastSeq) break;
+            bytes += replaySegment(seq, state);
+        }
+        return bytes;
+    }
+
+    private long readSnapshot(Map<Long, StoredReportPayload> state) throws IOException {
+        Path file = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(file)) return 0;
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file));
+        byte[] magic = new byte[SNAPSHOT_MAGIC.length];
+        if (buf.remaining() < magic.length + 12) throw new IOException("Truncated journal snapshot " + file);
+        buf.get(magic);
+        int version = buf.getInt();
+        if (!Arrays.equals(magic, SNAPSHOT_MAGIC) || version != SNAPSHOT_VERSION) {
+            throw new IOException("Unrecognised journal snapshot " + file);
+        }
+        long covered = buf.getLong();
+        while (true) {
+            Record rec = readRecord(buf);
+            if (rec == null) {
+                // snapshots are written to a tmp file and moved into place, so this is real damage
+                throw new IOException("Journal snapshot " + file + " is damaged at byte " + buf.position());
+            }
+            if (rec.type == END) {
+                int expected = ByteBuffer.wrap(rec.payload).getInt();
+                if (expected != state.size()) {
+                    throw new IOException("Journal snapshot " + file + " holds " + state.size()
+                            + " reports, expected " + expected);
+                }
+                return covered;
+            }
+            apply(rec, state);
+        }
+    }
+
+    private long replaySegment(long seq, Map<Long, StoredReportPayload> state) throws IOException {
+        Path file = segmentPath(seq);
+        byte[] data = Files.readAllBytes(file);
+        ByteBuffer buf = ByteBuffer.wrap(data);
+        while (buf.hasRemaining()) {
+            int start = buf.position();
+            Record rec = readRecord(buf);
+            if (rec == null) {
+                log.warn("Journal segment {} has a damaged record at byte {}; dropping the {} byte(s) after it",
+                        file.getFileName(), start, data.length - start);
+                try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    ch.truncate(start);
+                }
+                return start;
+            }
+            try {
+                apply(rec, state);
+            } catch (IOException e) {
+                log.warn("Skipping unreadable journal record in {} at byte {}: {}",
+                        file.getFileName(), start, e.toString());
+            }
+        }
+        return data.length;
+    }
+
+    private void apply(Record rec, Map<Long, StoredReportPayload> state) throws IOException {
+        switch (rec.type) {
+            case FULL -> {
+                StoredReportPayload p = ReportCodec.detect(rec.payload).decode(rec.payload);
+                if (p != null) state.put(p.id(), p);
+            }
+            case META -> {
+                StoredReportPayload p = ReportCodec.detect(rec.payload).decode(rec.payload);
+                if (p == null) return;
+                StoredReportPayload prev = state.get(p.id());
+                if (prev != null && prev.report().chat != null) {
+                    p.report().chat = prev.report().chat;
+                }
+                state.put(p.id(), p);
+            }
+            case CHAT_LINES -> {
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(rec.payload));
+                long id = in.readLong();
+                int from = in.readInt();
+                int n = in.readInt();
+                StoredReportPayload p = state.get(id);
+                if (p == null) {
+                    throw new IOException("chat for unknown report #" + id);
+                }
+                ChatLog chat = p.report().chat;
+                for (int i = 0; i < n; i++) {
+                    ChatMessage msg = new ChatMessage(in.readLong(), Interner.intern(readString(in)),
+                            Interner.intern(readString(in)), readString(in), in.readBoolean());
+                    // a repeated append carries lines the report already has
+                    if (from + i >= chat.size()) chat.add(msg);
+                }
+            }
+            default -> throw new IOException("unknown record type " + rec.type);
+        }
+    }
+
+    private record Record(byte type, byte[] payload) {}
+
+    /** Next record, or null if the bytes left do not form a complete record with a valid CRC. */
+    private static Record readRecord(ByteBuffer buf) {
+        if (buf.remaining() < 9) return null;
+        int length = buf.getInt();
+        int crc = buf.getInt();
+        if (length < 1 || length > MAX_RECORD || length > buf.remaining()) return null;
+        byte type = buf.get();
+        byte[] payload = new byte[length - 1];
+        buf.get(payload);
+        CRC32 check = new CRC32();
+        check.update(type);
+        check.update(payload);
+        if ((int) check.getValue() != crc) return null;
+        return new Record(type, payload);
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int len = in.readInt();
+        if (len < 0) return null;
+        if (len > MAX_RECORD) throw new EOFException("string length " + len);
+        byte[] utf8 = new byte[len];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /* ---------------- files ---------------- */
+
+    private Path segmentPath(long seq) {
+        return directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, seq, SEGMENT_SUFFIX));
+    }
+
+    private List<Long> listSegments() throws IOException {
+        List<Long> seqs = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(p -> {
+                String name = p.getFileName().toString();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    try {
+                        seqs.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                                name.length() - SEGMENT_SUFFIX.length())));
+                    } catch (NumberFormatException ignored) {
+                    }
+                }
+            });
+        }
+        seqs.sort(null);
+        return seqs;
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.reportsystem.storage;
+
+import com.example.reportsystem.config.PluginConfig;
+import org.slf4j.Logger;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Small bounded JDBC connection pool for the MySQL backend.
+ *
+ * - At most maximumPoolSize connections are handed out at once; callers wait up to
+ *   connectionTimeoutMs for one to come back.
+ * - Connections that sat idle are validated (Connection#isValid) before reuse.
+ * - Connections older than maxLifetimeMs are retired, idle ones beyond minimumIdle are
+ *   closed after idleTimeoutMs by a housekeeping task.
+ * - Handing out the same physical connection lets Connector/J's prepared-statement cache
+ *   (cachePrepStmts/useServerPrepStmts) reuse server-side statements across saves.
+ */
+public final class MysqlConnectionPool implements AutoCloseable {
+
+    /** Connections used within this window are trusted without a round-trip validation. */
+    private static final long VALIDATION_BYPASS_MS = 500L;
+    private static final long HOUSEKEEPING_INTERVAL_MS = 30_000L;
+
+    private final String jdbcUrl;
+    private final Properties props;
+    private final PluginConfig.MysqlPoolConfig cfg;
+    private final Logger log;
+
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<Entry> idle = new LinkedBlockingDeque<>();
+    private final AtomicInteger total = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    private static final class Entry {
+        final Connection raw;
+        final long createdAt;
+        volatile long lastUsed;
+        volatile boolean broken;
+
+        Entry(Connection raw) {
+            this.raw = raw;
+            this.createdAt = System.currentTimeMillis();
+            this.lastUsed = createdAt;
+        }
+    }
+
+    public MysqlConnectionPool(String jdbcUrl, String username, String password,
+                               PluginConfig.MysqlPoolConfig cfg, Logger log) {
+        this.jdbcUrl = jdbcUrl;
+        this.cfg = cfg;
+        this.log = log;
+        this.props = new Properties();
+        if (username != null) props.setProperty("user", username);
+        if (password != null) props.setProperty("password", password);
+        props.setProperty("cachePrepStmts", String.valueOf(cfg.cachePrepStmts));
+        props.setProperty("useServerPrepStmts", String.valueOf(cfg.useServerPrepStmts));
+        props.setProperty("prepStmtCacheSize", String.valueOf(Math.max(0, cfg.prepStmtCacheSize)));
+        props.setProperty("prepStmtCacheSqlLimit", String.valueOf(Math.max(0, cfg.prepStmtCacheSqlLimit)));
+
+        this.permits = new Semaphore(Math.max(1, cfg.maximumPoolSize), true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ReportSystem-MysqlPool");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep,
+                HOUSEKEEPING_INTERVAL_MS, HOUSEKEEPING_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /** Open minimumIdle connections up front so the first save does not pay the handshake. */
+    public void warmUp() throws SQLException {
+        int target = Math.min(Math.max(0, cfg.minimumIdle), Math.max(1, cfg.maximumPoolSize));
+        while (total.get() < target) {
+            idle.offerLast(open());
+        }
+    }
+
+    /** Borrow a connection; closing the returned handle gives it back to the pool. */
+    public Connection getConnection() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed");
+        try {
+            if (!permits.tryAcquire(Math.max(0, cfg.connectionTimeoutMs), TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + cfg.connectionTimeoutMs
+                        + "ms waiting for a MySQL connection (pool size " + cfg.maximumPoolSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a MySQL connection", e);
+        }
+
+        try {
+            Entry entry;
+            while ((entry = idle.pollFirst()) != null) {
+                if (isUsable(entry)) break;
+                discard(entry);
+            }
+            if (entry == null) {
+                entry = open();
+            }
+            entry.lastUsed = System.currentTimeMillis();
+            return wrap(entry);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int totalConnections() { return total.get(); }
+    public int idleConnections() { return idle.size(); }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        Entry e;
+        while ((e = idle.pollFirst()) != null) {
+            discard(e);
+        }
+    }
+
+    /* ---------------- internals ---------------- */
+
+    private Entry open() throws SQLException {
+        Connection raw = DriverManager.getConnection(jdbcUrl, props);
+        total.incrementAndGet();
+        return new Entry(raw);
+    }
+
+    private boolean isUsable(Entry e) {
+        long now = System.currentTimeMillis();
+        if (e.broken) return false;
+        if (expired(e, now)) return false;
+        if (now - e.lastUsed < VALIDATION_BYPASS_MS) return true;
+        try {
+            int timeoutSec = (int) Math.max(1, (cfg.validationTimeoutMs + 999) / 1000);
+            return e.raw.isValid(timeoutSec);
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    private boolean expired(Entry e, long now) {
+        return cfg.maxLifetimeMs > 0 && now - e.createdAt >= cfg.maxLifetimeMs;
+    }
+
+    private void release(Entry e) {
+        try {
+            if (!e.broken && !closed && !expired(e, System.currentTimeMillis())) {
+                try {
+                    if (!e.raw.getAutoCommit()) {
+                        e.raw.rollback();
+                        e.raw.setAutoCommit(true);
+                    }
+                    e.lastUsed = System.currentTimeMillis();
+                    idle.offerFirst(e); // LIFO keeps hot connections hot, lets cold ones age out
+                    return;
+                } catch (SQLException ex) {
+                    e.broken = true;
+                }
+            }
+            discard(e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(Entry e) {
+        total.decrementAndGet();
+        try {
+            e.raw.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+            int keep = Math.max(0, cfg.minimumIdle);
+            List<Entry> retired = new ArrayList<>();
+            // the tail of the deque holds the least recently used connections
+            Iterator<Entry> it = idle.descendingIterator();
+            while (it.hasNext()) {
+                Entry e = it.next();
+                boolean idleTooLong = cfg.idleTimeoutMs > 0 && now - e.lastUsed >= cfg.idleTimeoutMs
+                        && idle.size() - retired.size() > keep;
+                if (expired(e, now) || idleTooLong) {
+                    retired.add(e);
+                }
+            }
+            for (Entry e : retired) {
+                if (idle.remove(e)) discard(e);
+            }
+            if (!closed && total.get() < keep) {
+                warmUp();
+            }
+        } catch (Throwable t) {
+            log.warn("MySQL pool housekeeping failed: {}", t.toString());
+        }
+    }
+
+    private Connection wrap(Entry entry) {
+        InvocationHandler handler = new InvocationHandler() {
+            private boolean returned;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                String name = method.getName();
+                switch (name) {
+                    case "close" -> {
+                        if (!returned) {
+                            returned = true;
+                            release(entry);
+                        }
+                        return null;
+                    }
+                    case "isClosed" -> {
+                        return returned || entry.raw.isClosed();
+                    }
+                    case "equals" -> {
+                        return proxy == args[0];
+                    }
+                    case "hashCode" -> {
+                        return System.identityHashCode(proxy);
+                    }
+                    case "toString" -> {
+                        return "Pooled[" + entry.raw + "]";
+                    }
+                    default -> { }
+                }
+                if (returned) {
+                    throw new SQLException("Connection has already been returned to the pool");
+                }
+                try {
+                    return method.invoke(entry.raw, args);
+                } catch (InvocationTargetException ite) {
+                    Throwable cause = ite.getCause();
+                    if (cause instanceof SQLException sql && isFatal(sql)) {
+                        entry.broken = true;
+                    }
+                    throw cause;
+                }
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+    }
+
+    /** SQLState class 08 = connection exception; the physical link is unusable. */
+    private static boolean isFatal(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && state.startsWith("08");
+    }
+}
@@ -1,81 +1,565 @@
 package com.example.reportsystem.storage;
 
 import com.example.reportsystem.config.PluginConfig;
+import com.example.reportsystem.model.ChatMessage;
+import com.example.reportsystem.model.Report;
+import com.example.reportsystem.model.ReportStatus;
+import com.example.reportsystem.util.Interner;
 import org.slf4j.Logger;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
+/**
+ * MySQL backend with two schemas:
+ *
+ * - blob (default): one row per report holding the whole document written by the configured
+ *   {@link ReportCodec}: YAML text in {@code payload}, binary documents in {@code payload_bin}.
+ * - normalized: report columns in {@code <table>_v2} (indexed by status, reported, type/category,
+ *   assignee, count, timestamp and closed_at) and chat lines in {@code <table>_chat}, keyed by
+ *   (report_id, line_no) with a context flag per line. Appends are batched INSERT IGNOREs of the
+ *   new lines at their line numbers, so a repeated append is a no-op, and chat pages are read as
+ *   line_no ranges. Metadata updates never touch chat rows.
+ *
+ * In normalized mode an existing blob table is migrated into the v2 tables: every blob row whose
+ * id is not in {@code <table>_v2} yet is copied (one transaction per report), so an interrupted
+ * migration simply resumes on the next start. Completion is recorded in {@code <table>_state};
+ * the blob table itself is left untouched. Only the normalized schema supports lazy loading.
+ */
 public class MysqlReportStorage implements ReportStorage {
 
+    private static final int MIGRATION_BATCH = 500;
+    private static final String MIGRATION_STATE = "blob-migration";
+
+    private static final String META_COLUMNS = "id, reporter, reported, type_id, type_display, category_id, "
+            + "category_display, reason, `count`, `timestamp`, status, assignee, source_server, closed_at, updated_at";
+
     private final PluginConfig.MysqlStorageConfig config;
     private final Logger log;
+    private final ReportCodec codec;
+    private final int loadThreads;
+    private volatile int loadParallelism = 1;
     private String jdbcUrl;
     private String table;
     private String tableRef;
+    private String metaRef;
+    private String chatRef;
+    private String stateRef;
+    private boolean normalized;
+    private MysqlConnectionPool pool;
 
     public MysqlReportStorage(PluginConfig.MysqlStorageConfig config, Logger log) {
+        this(config, log, ReportCodec.YAML, 1);
+    }
+
+    /**
+     * @param codec       document format for the blob schema
+     * @param loadThreads threads used to decode blob rows at startup
+     */
+    public MysqlReportStorage(PluginConfig.MysqlStorageConfig config, Logger log, ReportCodec codec, int loadThreads) {
         this.config = config;
         this.log = log;
+        this.codec = codec;
+        this.loadThreads = Math.max(1, loadThreads);
     }
 
     @Override
     public void init() throws Exception {
         this.table = sanitizeTable(config.table);
         this.tableRef = "`" + this.table + "`";
+        this.metaRef = "`" + this.table + "_v2`";
+        this.chatRef = "`" + this.table + "_chat`";
+        this.stateRef = "`" + this.table + "_state`";
+        this.normalized = "normalized".equalsIgnoreCase(config.schema == null ? "" : config.schema.trim());
         this.jdbcUrl = buildJdbcUrl();
         registerDriver();
+        this.pool = new MysqlConnectionPool(jdbcUrl, config.username, config.password, config.pool, log);
+        pool.warmUp();
         try (Connection conn = getConnection();
              Statement st = conn.createStatement()) {
-            String ddl = "CREATE TABLE IF NOT EXISTS " + tableRef + " (" +
-                    "id BIGINT PRIMARY KEY," +
-                    "payload LONGTEXT NOT NULL," +
-                    "updated_at BIGINT NOT NULL" +
-                    ")";
-            st.executeUpdate(ddl);
+            if (normalized) {
+                st.executeUpdate("CREATE TABLE IF NOT EXISTS " + metaRef + " (" +
+                        "id BIGINT PRIMARY KEY," +
+                        "reporter VARCHAR(255) NULL," +
+                        "reported VARCHAR(255) NULL," +
+                        "type_id VARCHAR(64) NOT NULL," +
+                        "type_display VARCHAR(255) NULL," +
+                        "category_id VARCHAR(64) NOT NULL," +
+                        "category_display VARCHAR(255) NULL," +
+                        "reason TEXT NULL," +
+                        "`count` INT NOT NULL," +
+                        "`timestamp` BIGINT NOT NULL," +
+                        "status VARCHAR(16) NOT NULL," +
+                        "assignee VARCHAR(255) NULL," +
+                        "source_server VARCHAR(255) NULL," +
+                        "closed_at BIGINT NOT NULL DEFAULT 0," +
+                        "updated_at BIGINT NOT NULL," +
+                        "INDEX idx_status_closed (status, closed_at)," +
+                        "INDEX idx_reported (reported)," +
+                        "INDEX idx_type_category (type_id, category_id)," +
+                        "INDEX idx_assignee (assignee)," +
+                        "INDEX idx_count (`count`)," +
+                        "INDEX idx_timestamp (`timestamp`)" +
+                        ")");
+                st.executeUpdate("CREATE TABLE IF NOT EXISTS " + chatRef + " (" +
+                        "report_id BIGINT NOT NULL," +
+                        "line_no INT NOT NULL," +
+                        "`time` BIGINT NOT NULL," +
+                        "player VARCHAR(255) NULL," +
+                        "server VARCHAR(255) NULL," +
+                        "message TEXT NULL," +
+                        "context TINYINT(1) NOT NULL DEFAULT 0," +
+                        "PRIMARY KEY (report_id, line_no)" +
+                        ")");
+                st.executeUpdate("CREATE TABLE IF NOT EXISTS " + stateRef + " (" +
+                        "name VARCHAR(64) PRIMARY KEY," +
+                        "value VARCHAR(255) NOT NULL" +
+                        ")");
+            } else {
+                String ddl = "CREATE TABLE IF NOT EXISTS " + tableRef + " (" +
+                        "id BIGINT PRIMARY KEY," +
+                        "payload LONGTEXT NOT NULL," +
+                        "payload_bin LONGBLOB NULL," +
+                        "updated_at BIGINT NOT NULL" +
+                        ")";
+                st.executeUpdate(ddl);
+                if (!hasColumn(conn, table, "payload_bin")) {
+                    st.executeUpdate("ALTER TABLE " + tableRef + " ADD COLUMN payload_bin LONGBLOB NULL AFTER payload");
+                }
+            }
+        }
+        if (normalized) {
+            migrateLegacyBlobs();
         }
     }
 
     @Override
     public List<StoredReportPayload> loadAll() throws Exception {
-        List<StoredReportPayload> list = new ArrayList<>();
-        String sql = "SELECT id, payload FROM " + tableRef;
+        if (normalized) {
+            return loadNormalized("", "", null);
+        }
+        // page by id, decoding each page before the next is read, so only one page of raw
+        // documents is held at a time
+        List<StoredReportPayload> out = new ArrayList<>();
+        String page = "SELECT id, payload, payload_bin FROM " + tableRef
+                + " WHERE id > ? ORDER BY id LIMIT " + ParallelDecoder.CHUNK_SIZE;
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(page);
+             ParallelDecoder decoder = new ParallelDecoder(loadThreads)) {
+            long lastId = Long.MIN_VALUE;
+            while (true) {
+                List<Map.Entry<Long, byte[]>> rows = new ArrayList<>(ParallelDecoder.CHUNK_SIZE);
+                ps.setLong(1, lastId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(Map.entry(rs.getLong("id"), document(rs, true)));
+                    }
+                }
+                if (rows.isEmpty()) break;
+                lastId = rows.get(rows.size() - 1).getKey();
+                decoder.decode(rows, row -> {
+                    try {
+                        return decode(row.getValue());
+                    } catch (Exception ex) {
+                        log.warn("Failed to decode report #{}: {}", row.getKey(), ex.toString());
+                        return null;
+                    }
+                }, out);
+                if (rows.size() < ParallelDecoder.CHUNK_SIZE) break;
+            }
+            loadParallelism = decoder.parallelism();
+        }
+        return out;
+    }
+
+    @Override
+    public int loadParallelism() {
+        return loadParallelism;
+    }
+
+    @Override
+    public boolean supportsLazyLoading() {
+        return normalized;
+    }
+
+    @Override
+    public List<ReportIndexEntry> loadIndex() throws Exception {
+        if (!normalized) return ReportStorage.super.loadIndex();
+        List<ReportIndexEntry> list = new ArrayList<>();
+        String sql = "SELECT id, status, reported, closed_at, `timestamp` FROM " + metaRef;
         try (Connection conn = getConnection();
              PreparedStatement ps = conn.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
-                long id = rs.getLong("id");
-                String payload = rs.getString("payload");
-                list.add(new StoredReportPayload(id, payload));
+                ReportStatus status = "CLOSED".equalsIgnoreCase(rs.getString("status"))
+                        ? ReportStatus.CLOSED : ReportStatus.OPEN;
+                long closedAt = rs.getLong("closed_at");
+                if (status == ReportStatus.CLOSED && closedAt <= 0) closedAt = rs.getLong("timestamp");
+                list.add(new ReportIndexEntry(rs.getLong("id"), status, rs.getString("reported"), closedAt));
             }
         }
         return list;
     }
 
     @Override
-    public void save(long id, String yamlPayload) throws Exception {
-        String sql = "INSERT INTO " + tableRef + " (id, payload, updated_at) VALUES (?, ?, ?) " +
-                "ON DUPLICATE KEY UPDATE payload = VALUES(payload), updated_at = VALUES(updated_at)";
+    public List<StoredReportPayload> loadOpen() throws Exception {
+        if (!normalized) return ReportStorage.super.loadOpen();
+        return loadNormalized(" WHERE status = 'OPEN'",
+                " WHERE report_id IN (SELECT id FROM " + metaRef + " WHERE status = 'OPEN')", null);
+    }
+
+    @Override
+    public StoredReportPayload loadById(long id) throws Exception {
+        if (!normalized) return ReportStorage.super.loadById(id);
+        List<StoredReportPayload> list = loadNormalized(" WHERE id = ?", " WHERE report_id = ?", id);
+        return list.isEmpty() ? null : list.get(0);
+    }
+
+    @Override
+    public void save(Report report, long closedAt) throws Exception {
+        if (normalized) {
+            replaceNormalized(report, closedAt);
+            return;
+        }
+        String sql = "INSERT INTO " + tableRef + " (id, payload, payload_bin, updated_at) VALUES (?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE payload = VALUES(payload), payload_bin = VALUES(payload_bin), " +
+                "updated_at = VALUES(updated_at)";
+        byte[] doc = codec.encode(report, closedAt, true);
+        boolean binary = codec == ReportCodec.BINARY;
         long now = Instant.now().toEpochMilli();
         try (Connection conn = getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setLong(1, id);
-            ps.setString(2, yamlPayload);
-            ps.setLong(3, now);
+            ps.setLong(1, report.id);
+            ps.setString(2, binary ? "" : new String(doc, StandardCharsets.UTF_8));
+            if (binary) ps.setBytes(3, doc);
+            else ps.setNull(3, Types.LONGVARBINARY);
+            ps.setLong(4, now);
             ps.executeUpdate();
         }
     }
 
+    @Override
+    public boolean supportsIncremental() {
+        return normalized;
+    }
+
+    @Override
+    public void saveMetadata(Report report, long closedAt) throws Exception {
+        if (!normalized) {
+            ReportStorage.super.saveMetadata(report, closedAt);
+            return;
+        }
+        try (Connection conn = getConnection()) {
+            upsertMetadata(conn, report, closedAt);
+        }
+    }
+
+    /**
+     * Inserts the lines at line numbers {@code from, from + 1, ...}; lines already stored, e.g.
+     * from an append whose commit succeeded but was reported as failed, hit the
+     * (report_id, line_no) key and are skipped.
+     */
+    @Override
+    public void appendChat(long id, int from, List<ChatMessage> lines) throws Exception {
+        if (!normalized) {
+            ReportStorage.super.appendChat(id, from, lines);
+            return;
+        }
+        if (lines == null || lines.isEmpty()) return;
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                insertChat(conn, id, Math.max(0, from), lines);
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    @Override
+    public boolean supportsChatPaging() {
+        return normalized;
+    }
+
+    @Override
+    public List<ChatMessage> loadChat(long id, int from, int to) throws Exception {
+        if (!normalized) return ReportStorage.super.loadChat(id, from, to);
+        List<ChatMessage> out = new ArrayList<>(Math.max(0, to - from));
+        if (from >= to) return out;
+        String sql = "SELECT `time`, player, server, message, context FROM " + chatRef
+                + " WHERE report_id = ? AND line_no >= ? AND line_no < ? ORDER BY line_no";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, id);
+            ps.setInt(2, from);
+            ps.setInt(3, to);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    out.add(new ChatMessage(rs.getLong("time"), Interner.intern(rs.getString("player")),
+                            Interner.intern(rs.getString("server")), rs.getString("message"), rs.getBoolean("context")));
+                }
+            }
+        }
+        return out;
+    }
+
     @Override
     public String backendKey() {
         return "mysql";
     }
 
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+
+    /* ---------------- normalized schema ---------------- */
+
+    /** Load reports matching {@code metaWhere} plus their chat ({@code chatWhere}); {@code id} binds both. */
+    private List<StoredReportPayload> loadNormalized(String metaWhere, String chatWhere, Long id) throws SQLException {
+        Map<Long, StoredReportPayload> byId = new LinkedHashMap<>();
+        try (Connection conn = getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement("SELECT " + META_COLUMNS + " FROM " + metaRef + metaWhere)) {
+                if (id != null) ps.setLong(1, id);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        Report r = new Report();
+                        r.id = rs.getLong("id");
+                        r.reporter = rs.getString("reporter");
+                        r.reported = rs.getString("reported");
+                        r.typeId = Interner.intern(rs.getString("type_id"));
+                        r.typeDisplay = Interner.intern(rs.getString("type_display"));
+                        r.categoryId = Interner.intern(rs.getString("category_id"));
+                        r.categoryDisplay = Interner.intern(rs.getString("category_display"));
+                        r.reason = rs.getString("reason");
+                        r.count = rs.getInt("count");
+                        r.timestamp = rs.getLong("timestamp");
+                        r.status = "CLOSED".equalsIgnoreCase(rs.getString("status")) ? ReportStatus.CLOSED : ReportStatus.OPEN;
+                        r.assignee = Interner.intern(rs.getString("assignee"));
+                        r.sourceServer = Interner.intern(rs.getString("source_server"));
+                        byId.put(r.id, new StoredReportPayload(r.id, r, rs.getLong("closed_at")));
+                    }
+                }
+            }
+            if (byId.isEmpty()) return List.of();
+            String chatSql = "SELECT report_id, `time`, player, server, message, context FROM " + chatRef + chatWhere
+                    + " ORDER BY report_id, line_no";
+            try (PreparedStatement ps = conn.prepareStatement(chatSql)) {
+                if (id != null) ps.setLong(1, id);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        StoredReportPayload p = byId.get(rs.getLong("report_id"));
+                        if (p == null) continue;
+                        p.report().chat.add(new ChatMessage(rs.getLong("time"), Interner.intern(rs.getString("player")),
+                                Interner.intern(rs.getString("server")), rs.getString("message"), rs.getBoolean("context")));
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(byId.values());
+    }
+
+    /** Full save in normalized mode: metadata upsert plus chat replacement in one transaction. */
+    private void replaceNormalized(Report report, long closedAt) throws SQLException {
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                upsertMetadata(conn, report, closedAt);
+                try (PreparedStatement del = conn.prepareStatement("DELETE FROM " + chatRef + " WHERE report_id = ?")) {
+                    del.setLong(1, report.id);
+                    del.executeUpdate();
+                }
+                insertChat(conn, report.id, 0, report.chat.view(0, report.chat.size()));
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private void upsertMetadata(Connection conn, Report r, long closedAt) throws SQLException {
+        String sql = "INSERT INTO " + metaRef + " (" + META_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE reporter = VALUES(reporter), reported = VALUES(reported), " +
+                "type_id = VALUES(type_id), type_display = VALUES(type_display), " +
+                "category_id = VALUES(category_id), category_display = VALUES(category_display), " +
+                "reason = VALUES(reason), `count` = VALUES(`count`), `timestamp` = VALUES(`timestamp`), " +
+                "status = VALUES(status), assignee = VALUES(assignee), source_server = VALUES(source_server), " +
+                "closed_at = VALUES(closed_at), updated_at = VALUES(updated_at)";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, r.id);
+            ps.setString(2, nullIfBlank(r.reporter));
+            ps.setString(3, nullIfBlank(r.reported));
+            ps.setString(4, orEmpty(r.typeId));
+            ps.setString(5, r.typeDisplay);
+            ps.setString(6, orEmpty(r.categoryId));
+            ps.setString(7, r.categoryDisplay);
+            ps.setString(8, nullIfBlank(r.reason));
+            ps.setInt(9, r.count);
+            ps.setLong(10, r.timestamp);
+            ps.setString(11, r.status == null ? ReportStatus.OPEN.name() : r.status.name());
+            ps.setString(12, nullIfBlank(r.assignee));
+            ps.setString(13, nullIfBlank(r.sourceServer));
+            ps.setLong(14, closedAt);
+            ps.setLong(15, Instant.now().toEpochMilli());
+            ps.executeUpdate();
+        }
+    }
+
+    /** Insert {@code lines} as line numbers {@code first, first + 1, ...}, skipping numbers already stored. */
+    private void insertChat(Connection conn, long id, int first, List<ChatMessage> lines) throws SQLException {
+        if (lines == null || lines.isEmpty()) return;
+        String sql = "INSERT IGNORE INTO " + chatRef
+                + " (report_id, line_no, `time`, player, server, message, context) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            int lineNo = first;
+            for (ChatMessage c : lines) {
+                ps.setLong(1, id);
+                ps.setInt(2, lineNo++);
+                ps.setLong(3, c.time);
+                ps.setString(4, c.player);
+                ps.setString(5, c.server);
+                ps.setString(6, c.message);
+                ps.setBoolean(7, c.context);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * Copy legacy blob rows that are not in the v2 tables yet. Re-running is safe: reports already
+     * copied (or created/changed since in v2) are skipped, so a crash part-way just resumes.
+     * Marked done in the state table once a pass copies everything without failures.
+     */
+    private void migrateLegacyBlobs() throws SQLException {
+        boolean hasBinary;
+        try (Connection conn = getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT COUNT(*) FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = ?")) {
+                ps.setString(1, table);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next() || rs.getInt(1) == 0) return;
+                }
+            }
+            if ("done".equals(readState(conn, MIGRATION_STATE))) return;
+            hasBinary = hasColumn(conn, table, "payload_bin");
+        }
+
+        log.info("Migrating MySQL reports from blob table {} to normalized tables...", tableRef);
+        long lastId = Long.MIN_VALUE;
+        int migrated = 0;
+        int failed = 0;
+        String page = "SELECT b.id, b.payload" + (hasBinary ? ", b.payload_bin" : "") + " FROM " + tableRef + " b"
+                + " LEFT JOIN " + metaRef + " m ON m.id = b.id"
+                + " WHERE b.id > ? AND m.id IS NULL ORDER BY b.id LIMIT " + MIGRATION_BATCH;
+        while (true) {
+            List<Map.Entry<Long, byte[]>> batch = new ArrayList<>(MIGRATION_BATCH);
+            try (Connection conn = getConnection();
+                 PreparedStatement ps = conn.prepareStatement(page)) {
+                ps.setLong(1, lastId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        batch.add(Map.entry(rs.getLong("id"), document(rs, hasBinary)));
+                    }
+                }
+            }
+            if (batch.isEmpty()) break;
+            for (Map.Entry<Long, byte[]> row : batch) {
+                lastId = row.getKey();
+                try {
+                    StoredReportPayload payload = decode(row.getValue());
+                    if (payload == null) continue;
+                    replaceNormalized(payload.report(), payload.closedAt());
+                    migrated++;
+                } catch (Exception ex) {
+                    failed++;
+                    log.warn("Failed to migrate report #{}: {}", row.getKey(), ex.toString());
+                }
+            }
+        }
+        if (failed == 0) {
+            try (Connection conn = getConnection()) {
+                writeState(conn, MIGRATION_STATE, "done");
+            }
+            log.info("Migrated {} report(s) to {} / {}. The blob table {} was left in place.",
+                    migrated, metaRef, chatRef, tableRef);
+        } else {
+            log.warn("Migrated {} report(s) to {} / {}; {} failed and will be retried on the next start.",
+                    migrated, metaRef, chatRef, failed);
+        }
+    }
+
+    private String readState(Connection conn, String name) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT value FROM " + stateRef + " WHERE name = ?")) {
+            ps.setString(1, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    private void writeState(Connection conn, String name, String value) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO " + stateRef + " (name, value) VALUES (?, ?) ON DUPLICATE KEY UPDATE value = VALUES(value)")) {
+            ps.setString(1, name);
+            ps.setString(2, value);
+            ps.executeUpdate();
+        }
+    }
+
+    /* ---------------- blob documents ---------------- */
+
+    /** Raw stored document of a blob row: the binary column when set, else the YAML text. */
+    private static byte[] document(ResultSet rs, boolean hasBinary) throws SQLException {
+        byte[] bin = hasBinary ? rs.getBytes("payload_bin") : null;
+        if (bin != null && bin.length > 0) return bin;
+        String text = rs.getString("payload");
+        return text == null ? new byte[0] : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Decode with whichever codec wrote the document. */
+    private static StoredReportPayload decode(byte[] doc) throws Exception {
+        if (doc.length == 0) return null;
+        return ReportCodec.detect(doc).decode(doc);
+    }
+
+    private static boolean hasColumn(Connection conn, String table, String column) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT COUNT(*) FROM information_schema.columns "
+                + "WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?")) {
+            ps.setString(1, table);
+            ps.setString(2, column);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+
+
+    private static String nullIfBlank(String s) { return (s == null || s.isBlank()) ? null : s; }
+    private static String orEmpty(String s) { return s == null ? "" : s; }
+
+    /* ---------------- connection plumbing ---------------- */
+
     private Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(jdbcUrl, config.username, config.password);
+        MysqlConnectionPool p = pool;
+        if (p == null) throw new SQLException("MySQL storage is not initialised");
+        return p.getConnection();
     }
 
     private void registerDriver() throws Exception {
@@ -0,0 +1,81 @@
+package com.example.reportsystem.storage;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Fans startup decoding (file reads, YAML parsing) out over a short-lived ForkJoin pool.
+ *
+ * Callers feed input in chunks of at most {@link #CHUNK_SIZE} items and read the next chunk only
+ * after the previous one is decoded, so at most one chunk of raw input is in flight at a time;
+ * only the decoded results are kept. {@code decode} may return null to drop an item and must be
+ * thread-safe (use per-thread parser instances). The pool is started on the first chunk worth
+ * splitting and shut down by {@link #close()}.
+ */
+public final class ParallelDecoder implements AutoCloseable {
+
+    /** Items per chunk; bounds how much undecoded input is held at once. */
+    public static final int CHUNK_SIZE = 1024;
+
+    private final int threads;
+    private ForkJoinPool pool;
+
+    public ParallelDecoder(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /** Parallelism to use for a configured value; 0 or less means one thread per core. */
+    public static int threads(int configured) {
+        return configured > 0 ? configured : Math.max(1, Runtime.getRuntime().availableProcessors());
+    }
+
+    /** Decode {@code items} and add the non-null results to {@code out}, one chunk at a time. */
+    public <T, R> void decode(List<T> items, Function<T, R> decode, List<R> out) throws Exception {
+        for (int from = 0; from < items.size(); from += CHUNK_SIZE) {
+            List<T> chunk = items.subList(from, Math.min(items.size(), from + CHUNK_SIZE));
+            if (threads <= 1 || chunk.size() < 2) {
+                for (T item : chunk) {
+                    R r = decode.apply(item);
+                    if (r != null) out.add(r);
+                }
+                continue;
+            }
+            try {
+                out.addAll(pool().submit(() -> chunk.parallelStream()
+                        .map(decode)
+                        .filter(Objects::nonNull)
+                        .toList()).get());
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ex ? ex : e;
+            }
+        }
+    }
+
+    /** Threads decoding actually ran on: 1 until a chunk was split across the pool. */
+    public int parallelism() {
+        return pool == null ? 1 : threads;
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) pool.shutdown();
+    }
+
+    private ForkJoinPool pool() {
+        if (pool == null) {
+            AtomicInteger seq = new AtomicInteger();
+            pool = new ForkJoinPool(threads, p -> {
+                ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                t.setName("ReportSystem-Load-" + seq.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }, null, false);
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.reportsystem.storage;
+
+import com.example.reportsystem.model.Report;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Serialises a report document (metadata, closedAt and optionally chat) to bytes.
+ *
+ * Two codecs exist: {@link YamlReportCodec} (the historical format) and
+ * {@link BinaryReportCodec}. Backends write with the configured codec (storage.codec) and
+ * read with whichever codec {@link #detect(byte[]) recognises} the stored bytes, so switching
+ * codecs needs no migration.
+ */
+public interface ReportCodec {
+
+    ReportCodec YAML = new YamlReportCodec();
+    ReportCodec BINARY = new BinaryReportCodec();
+
+    /** Name used in config (storage.codec). */
+    String name();
+
+    /** File extension used by the filesystem backend, including the dot. */
+    String fileExtension();
+
+    /** Whether {@code data} looks like it was written by this codec. */
+    boolean accepts(byte[] data);
+
+    /**
+     * Encode a report. {@code report} must not be mutated concurrently (pass a snapshot).
+     * When {@code withChat} is false the chat list is left out.
+     */
+    byte[] encode(Report report, long closedAt, boolean withChat);
+
+    /** Decode a report; returns null for an empty or id-less document. */
+    StoredReportPayload decode(byte[] data) throws IOException;
+
+    static ReportCodec forName(String name) {
+        String n = name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+        return BINARY.name().equals(n) ? BINARY : YAML;
+    }
+
+    /** Codec that wrote {@code data}; anything without the binary header is treated as YAML. */
+    static ReportCodec detect(byte[] data) {
+        return BINARY.accepts(data) ? BINARY : YAML;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.reportsystem.storage;
+
+import com.example.reportsystem.model.Report;
+import com.example.reportsystem.model.ReportStatus;
+
+/**
+ * Lightweight per-report index row used for lazy loading: enough to know whether a report
+ * must be loaded eagerly and how closed reports are ordered, without decoding the report.
+ * {@code closedAt} falls back to the filing time for closed reports stored without one.
+ */
+public record ReportIndexEntry(long id, ReportStatus status, String reported, long closedAt) {
+
+    public static ReportIndexEntry of(Report r, long closedAt) {
+        ReportStatus status = r.status == null ? ReportStatus.OPEN : r.status;
+        if (status == ReportStatus.CLOSED && closedAt <= 0) {
+            closedAt = r.timestamp;
+        }
+        return new ReportIndexEntry(r.id, status, r.reported, closedAt);
+    }
+
+    public boolean isOpen() {
+        return status == ReportStatus.OPEN;
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.reportsystem.storage;
 
-import java.io.IOException;
+import com.example.reportsystem.model.ChatMessage;
+import com.example.reportsystem.model.Report;
+
 import java.util.List;
 
 public interface ReportStorage {
@@ -11,17 +13,91 @@ public interface ReportStorage {
     void init() throws Exception;
 
     /**
-     * Load every report payload as YAML text.
+     * Load and decode every stored report.
      */
     List<StoredReportPayload> loadAll() throws Exception;
 
     /**
-     * Persist the YAML payload for the given id.
+     * Threads the last {@link #loadAll()} or {@link #loadOpen()} decoded on; 1 when it ran
+     * sequentially.
+     */
+    default int loadParallelism() { return 1; }
+
+    /**
+     * Whether {@link #loadIndex()}, {@link #loadOpen()} and {@link #loadById(long)} are
+     * supported without decoding every stored report.
+     */
+    default boolean supportsLazyLoading() { return false; }
+
+    /**
+     * Lightweight index of every stored report.
+     */
+    default List<ReportIndexEntry> loadIndex() throws Exception {
+        throw new UnsupportedOperationException(backendKey() + " storage does not support lazy loading");
+    }
+
+    /**
+     * Load the payloads of open reports only.
+     */
+    default List<StoredReportPayload> loadOpen() throws Exception {
+        throw new UnsupportedOperationException(backendKey() + " storage does not support lazy loading");
+    }
+
+    /**
+     * Load a single report payload, or null if it does not exist.
+     */
+    default StoredReportPayload loadById(long id) throws Exception {
+        throw new UnsupportedOperationException(backendKey() + " storage does not support lazy loading");
+    }
+
+    /**
+     * Persist the whole report, chat included. {@code report} is a snapshot owned by the caller.
+     */
+    void save(Report report, long closedAt) throws Exception;
+
+    /**
+     * Whether metadata and chat can be persisted separately through
+     * {@link #saveMetadata(Report, long)} and {@link #appendChat(long, int, List)}.
+     */
+    default boolean supportsIncremental() { return false; }
+
+    /**
+     * Persist report metadata only; already stored chat is left untouched and
+     * {@code report.chat} is ignored.
      */
-    void save(long id, String yamlPayload) throws Exception;
+    default void saveMetadata(Report report, long closedAt) throws Exception {
+        throw new UnsupportedOperationException(backendKey() + " storage does not support incremental saves");
+    }
+
+    /**
+     * Append chat lines to the stored evidence of a report. {@code lines} are the report's chat
+     * lines {@code [from, from + lines.size())}; lines the backend already holds are skipped, so
+     * repeating an append that failed (or only partly applied) never stores a line twice.
+     */
+    default void appendChat(long id, int from, List<ChatMessage> lines) throws Exception {
+        throw new UnsupportedOperationException(backendKey() + " storage does not support incremental saves");
+    }
+
+    /**
+     * Whether {@link #loadChat(long, int, int)} can read back part of a report's stored chat,
+     * so older lines may be dropped from memory. Only meaningful with {@link #supportsIncremental()}.
+     */
+    default boolean supportsChatPaging() { return false; }
+
+    /**
+     * Stored chat lines {@code [from, to)} of a report, in append order (fewer if it has fewer).
+     */
+    default List<ChatMessage> loadChat(long id, int from, int to) throws Exception {
+        throw new UnsupportedOperationException(backendKey() + " storage does not support chat paging");
+    }
 
     /**
      * Identify the backend (filesystem, mysql, ...).
      */
     String backendKey();
+
+    /**
+     * Release resources (connections, file handles). Called once on shutdown after pending saves.
+     */
+    default void close() throws Exception { }
 }
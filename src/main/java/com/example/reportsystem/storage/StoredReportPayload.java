@@ -1,3 +1,10 @@
 package com.example.reportsystem.storage;
 
-public record StoredReportPayload(long id, String yaml) { }
+import com.example.reportsystem.model.Report;
+
+/**
+ * One decoded stored report. {@code closedAt} is kept next to the report because
+ * {@link Report} has no closedAt field (0 = unknown / open).
+ */
+public record StoredReportPayload(long id, Report report, long closedAt) {
+}
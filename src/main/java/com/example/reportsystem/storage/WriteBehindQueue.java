@@ -0,0 +1,224 @@
+package com.example.reportsystem.storage;
+
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind persistence stage.
+ *
+ * Mutations only mark a report id dirty; a single background flusher writes each dirty
+ * report once it has been quiet for {@code flushIntervalMs}, or once it has been dirty for
+ * {@code maxDelayMs} (whichever comes first). Repeated mutations of the same id in between
+ * collapse into one save. {@link #close()} stops the flusher and drains everything pending;
+ * whatever still fails then is logged as lost.
+ *
+ * {@link #mark} and {@link #append} return a future that completes once the write that
+ * includes the change has succeeded. A failed write stays queued and is retried with exponential
+ * backoff (doubling from {@code flushIntervalMs} up to {@link #MAX_BACKOFF_MS}), and its future
+ * stays pending meanwhile; it only fails if the change is given up on, i.e. still fails at shutdown.
+ *
+ * For backends with incremental saves the queue also remembers whether metadata changed and
+ * the first chat line appended since the last flush; the flusher writes the report's lines from
+ * there on. Backends skip lines they already hold, so retrying a partly applied append is safe.
+ */
+public final class WriteBehindQueue implements AutoCloseable {
+
+    /** Writes one report; {@code chatFrom} is the first chat line to append, or -1 for none. */
+    @FunctionalInterface
+    public interface Flusher {
+        void flush(long id, boolean metadata, int chatFrom) throws Exception;
+    }
+
+    static final long MAX_BACKOFF_MS = 60_000L;
+
+    private static final class Pending {
+        final long firstDirty;
+        volatile long lastDirty;
+        boolean metadata;
+        int chatFrom = -1;
+        int attempts;
+        long retryAt;
+        CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Pending(long now) {
+            this.firstDirty = now;
+            this.lastDirty = now;
+        }
+
+        void chatFrom(int line) {
+            chatFrom = chatFrom < 0 ? line : Math.min(chatFrom, line);
+        }
+    }
+
+    private final Flusher flusher;
+    private final Logger log;
+    private final long flushIntervalMs;
+    private final long maxDelayMs;
+    // Pending entries are only mutated inside compute(), so a flush that removes an entry
+    // can never race with a mutation that is still adding to it.
+    private final ConcurrentHashMap<Long, Pending> dirty = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor;
+    /** Flushes run one at a time, so a write-through after close never overtakes the final drain. */
+    private final Object flushLock = new Object();
+    private volatile boolean closed;
+
+    public WriteBehindQueue(Flusher flusher, Logger log, long flushIntervalMs, long maxDelayMs) {
+        this.flusher = flusher;
+        this.log = log;
+        this.flushIntervalMs = Math.max(10L, flushIntervalMs);
+        this.maxDelayMs = Math.max(this.flushIntervalMs, maxDelayMs);
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ReportSystem-WriteBehind");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(this::tick, this.flushIntervalMs, this.flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Mark a report's metadata (or, for blob backends, the whole report) as needing a save. */
+    public CompletableFuture<Void> mark(long id) {
+        long now = System.currentTimeMillis();
+        Pending pending = dirty.compute(id, (k, p) -> {
+            if (p == null) p = new Pending(now);
+            p.lastDirty = now;
+            p.metadata = true;
+            return p;
+        });
+        if (closed) flushOne(id); // late mutation during shutdown: write through
+        return pending.done;
+    }
+
+    /** Queue the report's chat lines from index {@code fromLine} on for an incremental append. */
+    public CompletableFuture<Void> append(long id, int fromLine) {
+        long now = System.currentTimeMillis();
+        Pending pending = dirty.compute(id, (k, p) -> {
+            if (p == null) p = new Pending(now);
+            p.lastDirty = now;
+            p.chatFrom(Math.max(0, fromLine));
+            return p;
+        });
+        if (closed) flushOne(id);
+        return pending.done;
+    }
+
+    /** Completes once everything queued so far for {@code id} has been written (now if nothing is). */
+    public CompletableFuture<Void> whenFlushed(long id) {
+        Pending p = dirty.get(id);
+        return p == null ? CompletableFuture.completedFuture(null) : p.done;
+    }
+
+    /** Ask the flusher to write everything pending as soon as possible (non-blocking). */
+    public void flushSoon() {
+        if (closed) return;
+        executor.execute(() -> drain(true));
+    }
+
+    /** Number of reports waiting to be written. */
+    public int pending() {
+        return dirty.size();
+    }
+
+    /** Stop the flusher and synchronously write everything still pending. */
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Write-behind flusher did not stop in time; draining on the caller thread.");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drain(true);
+    }
+
+    private void tick() {
+        try {
+            drain(false);
+        } catch (Throwable t) {
+            log.warn("Write-behind flush failed: {}", t.toString());
+        }
+    }
+
+    /** Write due entries; {@code everything} ignores the quiet period (and, once closed, the backoff). */
+    private void drain(boolean everything) {
+        long now = System.currentTimeMillis();
+        List<Long> due = new ArrayList<>();
+        for (Map.Entry<Long, Pending> e : dirty.entrySet()) {
+            Pending p = e.getValue();
+            if (!closed && now < p.retryAt) continue;
+            if (everything
+                    || now - p.lastDirty >= flushIntervalMs
+                    || now - p.firstDirty >= maxDelayMs) {
+                due.add(e.getKey());
+            }
+        }
+        for (Long id : due) {
+            flushOne(id);
+        }
+    }
+
+    private void flushOne(long id) {
+        synchronized (flushLock) {
+            Pending p = dirty.remove(id);
+            if (p == null) return;
+            try {
+                flusher.flush(id, p.metadata, p.chatFrom);
+                p.done.complete(null);
+            } catch (Exception e) {
+                if (closed) {
+                    // nothing retries after shutdown: give up on the change and tell its waiters
+                    log.error("Failed to save report #{} during shutdown; its latest changes are lost: {}", id, e.toString());
+                    p.done.completeExceptionally(e);
+                    return;
+                }
+                log.warn("Failed to save report #{}: {} (retry {} in {} ms)",
+                        id, e.toString(), p.attempts + 1, backoff(p.attempts + 1));
+                requeue(id, p);
+            }
+        }
+    }
+
+    /** Delay before retry number {@code attempt} (1-based). */
+    long backoff(int attempt) {
+        int shift = Math.min(Math.max(0, attempt - 1), 20);
+        return Math.min(MAX_BACKOFF_MS, flushIntervalMs << shift);
+    }
+
+    /**
+     * Put a failed flush back, merged with anything queued since. The retry completes the failed
+     * entry's future, and a newer entry's future along with it.
+     */
+    private void requeue(long id, Pending failed) {
+        int attempts = failed.attempts + 1;
+        long retryAt = System.currentTimeMillis() + backoff(attempts);
+        dirty.compute(id, (k, p) -> {
+            Pending merged = new Pending(p == null ? failed.firstDirty : Math.min(failed.firstDirty, p.firstDirty));
+            merged.lastDirty = p == null ? failed.lastDirty : p.lastDirty;
+            merged.metadata = failed.metadata || (p != null && p.metadata);
+            if (failed.chatFrom >= 0) merged.chatFrom(failed.chatFrom);
+            if (p != null && p.chatFrom >= 0) merged.chatFrom(p.chatFrom);
+            merged.attempts = attempts;
+            merged.retryAt = retryAt;
+            merged.done = failed.done;
+            if (p != null) {
+                CompletableFuture<Void> newer = p.done;
+                failed.done.whenComplete((v, e) -> {
+                    if (e == null) newer.complete(null);
+                    else newer.completeExceptionally(e);
+                });
+            }
+            return merged;
+        });
+    }
+}
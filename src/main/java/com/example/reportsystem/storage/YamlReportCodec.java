@@ -0,0 +1,130 @@
+package com.example.reportsystem.storage;
+
+import com.example.reportsystem.model.ChatMessage;
+import com.example.reportsystem.model.Report;
+import com.example.reportsystem.model.ReportStatus;
+import com.example.reportsystem.util.Interner;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The original YAML document format (one mapping per report, chat as a list of mappings).
+ */
+public final class YamlReportCodec implements ReportCodec {
+
+    /** Yaml instances are not thread-safe; loading decodes on several threads. */
+    private static final ThreadLocal<Yaml> YAML = ThreadLocal.withInitial(Yaml::new);
+
+    YamlReportCodec() {}
+
+    @Override
+    public String name() {
+        return "yaml";
+    }
+
+    @Override
+    public String fileExtension() {
+        return ".yml";
+    }
+
+    @Override
+    public boolean accepts(byte[] data) {
+        return !BINARY.accepts(data);
+    }
+
+    @Override
+    public byte[] encode(Report r, long closedAt, boolean withChat) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", r.id);
+        m.put("reporter", nullIfBlank(r.reporter));
+        m.put("reported", nullIfBlank(r.reported));
+        m.put("typeId", r.typeId);
+        m.put("typeDisplay", r.typeDisplay);
+        m.put("categoryId", r.categoryId);
+        m.put("categoryDisplay", r.categoryDisplay);
+        m.put("reason", nullIfBlank(r.reason));
+        m.put("count", r.count);
+        m.put("timestamp", r.timestamp);
+        m.put("status", r.status == null ? ReportStatus.OPEN.name() : r.status.name());
+        m.put("assignee", nullIfBlank(r.assignee));
+        m.put("sourceServer", nullIfBlank(r.sourceServer));
+        m.put("closedAt", closedAt);
+
+        if (withChat && r.chat != null && !r.chat.isEmpty()) {
+            List<Map<String, Object>> msgs = new ArrayList<>(r.chat.size());
+            for (ChatMessage c : r.chat.view(0, r.chat.size())) {
+                Map<String, Object> cm = new LinkedHashMap<>();
+                cm.put("time", c.time);
+                cm.put("player", c.player);
+                cm.put("server", c.server);
+                cm.put("message", c.message);
+                if (c.context) cm.put("context", true);
+                msgs.add(cm);
+            }
+            m.put("chat", msgs);
+        }
+        return YAML.get().dump(m).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public StoredReportPayload decode(byte[] data) throws IOException {
+        Object o;
+        try {
+            o = YAML.get().load(new String(data, StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed YAML report: " + e.getMessage(), e);
+        }
+        if (!(o instanceof Map<?, ?> m)) return null;
+
+        Report r = new Report();
+        r.id = getLong(m.get("id"), 0L);
+        if (r.id <= 0) return null;
+
+        r.reporter = asStr(m.get("reporter"));
+        r.reported = asStr(m.get("reported"));
+        r.typeId = Interner.intern(asStr(m.get("typeId")));
+        r.typeDisplay = Interner.intern(asStr(m.get("typeDisplay")));
+        r.categoryId = Interner.intern(asStr(m.get("categoryId")));
+        r.categoryDisplay = Interner.intern(asStr(m.get("categoryDisplay")));
+        r.reason = asStr(m.get("reason"));
+        r.count = (int) getLong(m.get("count"), 1);
+        r.timestamp = getLong(m.get("timestamp"), System.currentTimeMillis());
+
+        String st = asStr(m.get("status"));
+        try {
+            r.status = (st == null || st.isBlank()) ? ReportStatus.OPEN : ReportStatus.valueOf(st);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown report status '" + st + "'", e);
+        }
+        r.assignee = Interner.intern(asStr(m.get("assignee")));
+        r.sourceServer = Interner.intern(asStr(m.get("sourceServer")));
+
+        if (m.get("chat") instanceof List<?> list) {
+            for (Object c : list) {
+                if (c instanceof Map<?, ?> mm) {
+                    long t = getLong(mm.get("time"), System.currentTimeMillis());
+                    r.chat.add(new ChatMessage(t, Interner.intern(asStr(mm.get("player"))),
+                            Interner.intern(asStr(mm.get("server"))), asStr(mm.get("message")),
+                            Boolean.TRUE.equals(mm.get("context"))));
+                }
+            }
+        }
+        return new StoredReportPayload(r.id, r, getLong(m.get("closedAt"), 0L));
+    }
+
+    private static String nullIfBlank(String s) {
+        return (s == null || s.isBlank()) ? null : s;
+    }
+    private static String asStr(Object o) { return o == null ? null : String.valueOf(o); }
+    private static long getLong(Object o, long def) {
+        if (o == null) return def;
+        if (o instanceof Number n) return n.longValue();
+        try { return Long.parseLong(String.valueOf(o)); } catch (Exception e) { return def; }
+    }
+}
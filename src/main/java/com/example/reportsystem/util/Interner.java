@@ -0,0 +1,68 @@
+package com.example.reportsystem.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Canonical instances for the small vocabulary repeated across reports and chat lines: type and
+ * category ids/names, server names and chat player names. Loaders and event handlers pass those
+ * fields through {@link #intern(String)} so every report/line shares one String per value.
+ *
+ * Bounded: once {@link #MAX_ENTRIES} distinct values are pooled, unseen values are returned
+ * as-is. Nothing is evicted; the vocabulary is small and lives as long as the reports do.
+ * Free text (reasons, chat messages) must not go through here.
+ */
+public final class Interner {
+
+    public static final int MAX_ENTRIES = 16_384;
+
+    private static final ConcurrentHashMap<String, String> POOL = new ConcurrentHashMap<>();
+    private static final LongAdder SHARED = new LongAdder();
+    private static final LongAdder SAVED_BYTES = new LongAdder();
+    private static final LongAdder REJECTED = new LongAdder();
+
+    private Interner() {}
+
+    public static String intern(String s) {
+        if (s == null) return null;
+        String canon = POOL.get(s);
+        if (canon == null) {
+            if (POOL.size() >= MAX_ENTRIES) {
+                REJECTED.increment();
+                return s;
+            }
+            canon = POOL.putIfAbsent(s, s);
+            if (canon == null) return s;
+        }
+        if (canon != s) {
+            SHARED.increment();
+            SAVED_BYTES.add(estimateSize(s));
+        }
+        return canon;
+    }
+
+    /** Distinct values pooled. */
+    public static int size() {
+        return POOL.size();
+    }
+
+    /** Duplicates replaced by a pooled instance since startup. */
+    public static long shared() {
+        return SHARED.sum();
+    }
+
+    /** Estimated bytes of the duplicate Strings that were dropped in favour of pooled ones. */
+    public static long savedBytes() {
+        return SAVED_BYTES.sum();
+    }
+
+    /** Values returned un-pooled because the pool was full. */
+    public static long rejected() {
+        return REJECTED.sum();
+    }
+
+    /** String object (24) + byte[] header (16) + Latin-1 payload, rounded to 8; UTF-16 text is undercounted. */
+    private static long estimateSize(String s) {
+        return 24 + ((16 + s.length() + 7) & ~7L);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.reportsystem.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatLogTest {
+
+    private static ChatMessage line(int i) {
+        return new ChatMessage(i, "p", "s", Integer.toString(i));
+    }
+
+    private static ChatLog filled(int n) {
+        ChatLog log = new ChatLog();
+        for (int i = 0; i < n; i++) log.add(line(i));
+        return log;
+    }
+
+    @Test
+    void viewReadsAcrossChunks() {
+        ChatLog log = filled(200);
+        List<ChatMessage> v = log.view(60, 140);
+        assertEquals(80, v.size());
+        for (int i = 0; i < v.size(); i++) assertEquals(60 + i, v.get(i).time);
+        assertThrows(IndexOutOfBoundsException.class, () -> log.view(0, 201));
+        assertThrows(UnsupportedOperationException.class, () -> v.add(line(0)));
+    }
+
+    @Test
+    void frozenLogIgnoresLaterAppends() {
+        ChatLog log = filled(70);
+        ChatLog frozen = log.freeze();
+        for (int i = 70; i < 300; i++) log.add(line(i));
+
+        assertEquals(70, frozen.size());
+        assertEquals(69, frozen.view(0, 70).get(69).time);
+        assertEquals(300, log.size());
+        assertThrows(UnsupportedOperationException.class, () -> frozen.add(line(0)));
+    }
+
+    @Test
+    void spillDropsWholeChunksOnly() {
+        ChatLog log = filled(200);
+        ChatLog frozen = log.freeze();
+
+        ChatLog spilled = log.spill(150);
+        assertEquals(200, spilled.size());
+        assertEquals(128, spilled.spilled()); // rounded down to the chunk boundary
+        assertEquals(72, spilled.inMemory().size());
+        assertEquals(128, spilled.inMemory().get(0).time);
+        assertThrows(IllegalStateException.class, () -> spilled.view(100, 130));
+
+        // appends continue on the spilled log; older snapshots still hold every line
+        spilled.add(line(200));
+        assertEquals(200, spilled.view(200, 201).get(0).time);
+        assertEquals(0, frozen.view(0, 1).get(0).time);
+
+        assertSame(spilled, spilled.spill(130));
+        ChatLog small = filled(10);
+        assertSame(small, small.spill(10)); // less than a chunk: nothing to drop
+    }
+
+    @Test
+    void countsContextLinesThroughSpillAndFreeze() {
+        ChatLog log = new ChatLog();
+        for (int i = 0; i < 100; i++) {
+            log.add(i % 4 == 0 ? line(i).asContext() : line(i));
+        }
+        assertEquals(25, log.contextLines());
+        ChatLog spilled = log.spill(100);
+        assertEquals(25, spilled.contextLines());
+        spilled.add(line(100).asContext());
+        assertEquals(26, spilled.freeze().contextLines());
+    }
+
+    @Test
+    void asContextCopiesTheSharedLine() {
+        ChatMessage own = line(1);
+        ChatMessage ctx = own.asContext();
+        assertNotSame(own, ctx);
+        assertFalse(own.context);
+        assertTrue(ctx.context);
+        assertSame(ctx, ctx.asContext());
+    }
+}
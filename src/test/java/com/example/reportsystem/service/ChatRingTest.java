@@ -0,0 +1,97 @@
+package com.example.reportsystem.service;
+
+import com.example.reportsystem.model.ChatMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatRingTest {
+
+    private static ChatMessage line(long i) {
+        return new ChatMessage(i, "p", "s", Long.toString(i));
+    }
+
+    @Test
+    void keepsTheNewestLinesInOrderAfterWrapping() {
+        ChatRing ring = new ChatRing(10);
+        for (int i = 0; i < 35; i++) ring.add(line(i), Long.MIN_VALUE);
+
+        List<ChatMessage> held = ring.since(Long.MIN_VALUE);
+        assertEquals(10, held.size());
+        for (int i = 0; i < 10; i++) assertEquals(25 + i, held.get(i).time);
+        assertEquals(10, ring.size());
+        assertEquals(34, ring.newest().time);
+    }
+
+    @Test
+    void windowStartIsFoundByTime() {
+        ChatRing ring = new ChatRing(100);
+        for (int i = 0; i < 50; i++) ring.add(line(i * 1000L), Long.MIN_VALUE);
+
+        List<ChatMessage> recent = ring.since(40_000);
+        assertEquals(10, recent.size());
+        assertEquals(40_000, recent.get(0).time);
+
+        List<ChatMessage> limited = ring.since(0, 3);
+        assertEquals(List.of(47_000L, 48_000L, 49_000L), limited.stream().map(m -> m.time).toList());
+    }
+
+    @Test
+    void dropsLinesOlderThanTheCutoff() {
+        ChatRing ring = new ChatRing(100);
+        for (int i = 0; i < 10; i++) ring.add(line(i), i - 120);
+        ring.add(line(500), 500 - 120);
+
+        assertEquals(1, ring.size());
+        assertEquals(500, ring.since(Long.MIN_VALUE).get(0).time);
+    }
+
+    @Test
+    void staysWithinTheByteBudget() {
+        ChatRing unbounded = new ChatRing(1000);
+        unbounded.add(line(0), Long.MIN_VALUE);
+        long emptyRing = new ChatRing(1000).estimateBytes();
+        long perLine = unbounded.estimateBytes() - emptyRing;
+
+        ChatRing ring = new ChatRing(1000, perLine * 20);
+        for (int i = 0; i < 500; i++) ring.add(line(i % 10), Long.MIN_VALUE);
+        assertEquals(20, ring.size());
+        assertTrue(ring.estimateBytes() - emptyRing <= perLine * 20);
+    }
+
+    /** One writer laps a small ring while readers check that every copy is ordered and unique. */
+    @Test
+    void readersNeverSeeAReusedSlot() throws Exception {
+        ChatRing ring = new ChatRing(8);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        Thread writer = new Thread(() -> {
+            for (long i = 0; i < 2_000_000 && failure.get() == null; i++) ring.add(line(i), Long.MIN_VALUE);
+            done.set(true);
+        });
+        Runnable reader = () -> {
+            while (!done.get() && failure.get() == null) {
+                List<ChatMessage> copy = ring.since(Long.MIN_VALUE);
+                if (copy.size() > 8) failure.compareAndSet(null, "more lines than capacity: " + copy.size());
+                for (int i = 1; i < copy.size(); i++) {
+                    if (copy.get(i).time != copy.get(i - 1).time + 1) {
+                        failure.compareAndSet(null, "out of order or repeated: " + copy.get(i - 1).time + " then " + copy.get(i).time);
+                        break;
+                    }
+                }
+            }
+        };
+        Thread[] readers = {new Thread(reader), new Thread(reader)};
+        for (Thread t : readers) t.start();
+        writer.start();
+        writer.join();
+        for (Thread t : readers) t.join();
+
+        assertNull(failure.get(), failure.get());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.reportsystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongMapTest {
+
+    @Test
+    void growsPastItsInitialCapacity() {
+        LongMap<String> map = new LongMap<>();
+        for (long k = 1; k <= 10_000; k++) assertNull(map.put(k, "v" + k));
+        assertEquals(10_000, map.size());
+        for (long k = 1; k <= 10_000; k++) assertEquals("v" + k, map.get(k));
+        assertNull(map.get(0));
+        assertNull(map.get(10_001));
+        assertEquals(10_000, map.values().size());
+    }
+
+    @Test
+    void removeKeepsCollidingKeysReachable() {
+        LongMap<Long> map = new LongMap<>();
+        for (long k = 0; k < 2_000; k++) map.put(k, k);
+        for (long k = 0; k < 2_000; k += 2) assertEquals(Long.valueOf(k), map.remove(k));
+        assertEquals(1_000, map.size());
+        for (long k = 0; k < 2_000; k++) {
+            if (k % 2 == 0) assertFalse(map.containsKey(k));
+            else assertEquals(Long.valueOf(k), map.get(k));
+        }
+        assertNull(map.remove(0));
+    }
+
+    @Test
+    void putIfAbsentLeavesTheExistingValue() {
+        LongMap<String> map = new LongMap<>();
+        assertNull(map.putIfAbsent(5, "a"));
+        assertEquals("a", map.putIfAbsent(5, "b"));
+        assertEquals("a", map.put(5, "c"));
+        assertEquals("c", map.get(5));
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        LongMap<Integer> map = new LongMap<>();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random rnd = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            long k = rnd.nextInt(3_000) - 1_000L; // negative keys too
+            if (rnd.nextInt(3) == 0) {
+                assertEquals(expected.remove(k), map.remove(k));
+            } else {
+                assertEquals(expected.put(k, i), map.put(k, i));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        expected.forEach((k, v) -> assertEquals(v, map.get(k)));
+        Map<Long, Integer> seen = new HashMap<>();
+        map.forEach(seen::put);
+        assertEquals(expected, seen);
+
+        map.clear();
+        assertTrue(map.isEmpty());
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.reportsystem.storage;
+
+import com.example.reportsystem.model.ChatMessage;
+import com.example.reportsystem.model.Report;
+import com.example.reportsystem.model.ReportType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalReportStorageTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JournalReportStorageTest.class);
+
+    private static JournalReportStorage open(Path dir) throws Exception {
+        JournalReportStorage s = new JournalReportStorage(dir, LOG, ReportCodec.BINARY, false, 0, Long.MAX_VALUE);
+        s.init();
+        return s;
+    }
+
+    private static Report report(long id) {
+        return new Report(id, "alice", "bob", new ReportType("player", "Player", "chat", "Chat"), "spam", 1_000L);
+    }
+
+    private static List<ChatMessage> lines(int from, int to) {
+        return IntStream.range(from, to)
+                .mapToObj(i -> new ChatMessage(2_000L + i, "bob", "lobby", "line " + i))
+                .toList();
+    }
+
+    private static Report only(List<StoredReportPayload> loaded) {
+        assertEquals(1, loaded.size());
+        return loaded.get(0).report();
+    }
+
+    private static Path newestSegment(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().startsWith("journal-"))
+                    .filter(p -> {
+                        try {
+                            return Files.size(p) > 0;
+                        } catch (IOException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    })
+                    .max(Path::compareTo)
+                    .orElseThrow();
+        }
+    }
+
+    @Test
+    void replayDropsATornTailRecord(@TempDir Path dir) throws Exception {
+        JournalReportStorage s = open(dir);
+        Report r = report(1);
+        r.chat.addAll(lines(0, 2));
+        s.save(r, 0);
+        s.appendChat(1, 2, lines(2, 3));
+        s.appendChat(1, 3, lines(3, 4));
+        s.close();
+
+        Path segment = newestSegment(dir);
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            ch.truncate(ch.size() - 5); // crash in the middle of the last append
+        }
+
+        JournalReportStorage reopened = open(dir);
+        Report loaded = only(reopened.loadAll());
+        assertEquals(3, loaded.chat.size());
+        assertEquals("line 2", loaded.chat.view(0, 3).get(2).message);
+
+        // the log keeps working after the torn record
+        reopened.appendChat(1, 3, lines(3, 5));
+        reopened.close();
+        JournalReportStorage again = open(dir);
+        assertEquals(5, only(again.loadAll()).chat.size());
+        again.close();
+    }
+
+    @Test
+    void repeatedAppendDoesNotDuplicateChat(@TempDir Path dir) throws Exception {
+        JournalReportStorage s = open(dir);
+        s.save(report(1), 0);
+        s.appendChat(1, 0, lines(0, 3));
+        s.appendChat(1, 0, lines(0, 3)); // retry of an append that had already landed
+        s.appendChat(1, 2, lines(2, 4)); // overlaps by one line
+        s.close();
+
+        JournalReportStorage reopened = open(dir);
+        Report loaded = only(reopened.loadAll());
+        List<ChatMessage> chat = loaded.chat.view(0, loaded.chat.size());
+        assertEquals(List.of("line 0", "line 1", "line 2", "line 3"), chat.stream().map(m -> m.message).toList());
+        reopened.close();
+    }
+
+    @Test
+    void metadataSaveKeepsReplayedChatAndContextFlags(@TempDir Path dir) throws Exception {
+        JournalReportStorage s = open(dir);
+        s.save(report(1), 0);
+        s.appendChat(1, 0, List.of(new ChatMessage(2_000L, "carol", "lobby", "hi", true),
+                new ChatMessage(2_001L, "bob", "lobby", "go away")));
+        Report meta = report(1);
+        meta.assignee = "mod";
+        s.saveMetadata(meta, 0);
+        s.close();
+
+        JournalReportStorage reopened = open(dir);
+        Report loaded = only(reopened.loadAll());
+        assertEquals("mod", loaded.assignee);
+        assertEquals(2, loaded.chat.size());
+        assertEquals(1, loaded.chat.contextLines());
+        assertTrue(loaded.chat.view(0, 1).get(0).context);
+        reopened.close();
+    }
+}
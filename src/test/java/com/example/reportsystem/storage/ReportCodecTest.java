@@ -0,0 +1,118 @@
+package com.example.reportsystem.storage;
+
+import com.example.reportsystem.model.ChatMessage;
+import com.example.reportsystem.model.Report;
+import com.example.reportsystem.model.ReportStatus;
+import com.example.reportsystem.model.ReportType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportCodecTest {
+
+    private static Report sample() {
+        Report r = new Report(42, "alice", "bob", new ReportType("player", "Player", "chat", "Chat"),
+                "spam | caps", 1_700_000_000_000L);
+        r.count = 3;
+        r.status = ReportStatus.CLOSED;
+        r.assignee = "mod";
+        r.sourceServer = "lobby";
+        r.chat.add(new ChatMessage(1_700_000_000_500L, "bob", "lobby", "first"));
+        r.chat.add(new ChatMessage(1_699_999_999_000L, "carol", "lobby", "said earlier", true));
+        r.chat.add(new ChatMessage(1_700_000_001_000L, "bob", "lobby", "ünïcødé ✓"));
+        return r;
+    }
+
+    private static void assertRoundTrip(ReportCodec codec) throws IOException {
+        Report in = sample();
+        byte[] data = codec.encode(in, 1_700_000_100_000L, true);
+        assertSame(codec, ReportCodec.detect(data));
+
+        StoredReportPayload p = codec.decode(data);
+        assertEquals(42L, p.id());
+        assertEquals(1_700_000_100_000L, p.closedAt());
+        Report out = p.report();
+        assertEquals("alice", out.reporter);
+        assertEquals("bob", out.reported);
+        assertEquals("player", out.typeId);
+        assertEquals("Chat", out.categoryDisplay);
+        assertEquals("spam | caps", out.reason);
+        assertEquals(3, out.count);
+        assertEquals(in.timestamp, out.timestamp);
+        assertEquals(ReportStatus.CLOSED, out.status);
+        assertEquals("mod", out.assignee);
+        assertEquals("lobby", out.sourceServer);
+
+        List<ChatMessage> expected = in.chat.view(0, in.chat.size());
+        List<ChatMessage> chat = out.chat.view(0, out.chat.size());
+        assertEquals(expected.size(), chat.size());
+        for (int i = 0; i < chat.size(); i++) {
+            assertEquals(expected.get(i).time, chat.get(i).time);
+            assertEquals(expected.get(i).player, chat.get(i).player);
+            assertEquals(expected.get(i).server, chat.get(i).server);
+            assertEquals(expected.get(i).message, chat.get(i).message);
+            assertEquals(expected.get(i).context, chat.get(i).context);
+        }
+        assertEquals(1, out.chat.contextLines());
+    }
+
+    @Test
+    void yamlRoundTrips() throws IOException {
+        assertRoundTrip(ReportCodec.YAML);
+    }
+
+    @Test
+    void binaryRoundTrips() throws IOException {
+        assertRoundTrip(ReportCodec.BINARY);
+    }
+
+    @Test
+    void metadataOnlyLeavesChatOut() throws IOException {
+        for (ReportCodec codec : List.of(ReportCodec.YAML, ReportCodec.BINARY)) {
+            Report out = codec.decode(codec.encode(sample(), 0, false)).report();
+            assertTrue(out.chat.isEmpty(), codec.name());
+            assertEquals("bob", out.reported, codec.name());
+        }
+    }
+
+    @Test
+    void blankOptionalFieldsComeBackNull() throws IOException {
+        for (ReportCodec codec : List.of(ReportCodec.YAML, ReportCodec.BINARY)) {
+            Report in = sample();
+            in.assignee = "";
+            in.sourceServer = null;
+            in.status = ReportStatus.OPEN;
+            Report out = codec.decode(codec.encode(in, 0, true)).report();
+            assertNull(out.assignee, codec.name());
+            assertNull(out.sourceServer, codec.name());
+            assertEquals(ReportStatus.OPEN, out.status, codec.name());
+        }
+    }
+
+    @Test
+    void missingStatusEncodesAsOpen() throws IOException {
+        for (ReportCodec codec : List.of(ReportCodec.YAML, ReportCodec.BINARY)) {
+            Report in = sample();
+            in.status = null;
+            assertEquals(ReportStatus.OPEN, codec.decode(codec.encode(in, 0, false)).report().status, codec.name());
+        }
+    }
+
+    @Test
+    void binaryRejectsTruncatedDocuments() {
+        byte[] data = ReportCodec.BINARY.encode(sample(), 0, true);
+        byte[] cut = Arrays.copyOf(data, data.length - 4);
+        assertThrows(IOException.class, () -> ReportCodec.BINARY.decode(cut));
+    }
+
+    @Test
+    void binaryRejectsCountsLargerThanTheInput() {
+        // magic, version 1, no flags, then a string table claiming Integer.MAX_VALUE entries
+        byte[] data = {'R', 'S', 'B', 1, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        assertThrows(IOException.class, () -> ReportCodec.BINARY.decode(data));
+    }
+}
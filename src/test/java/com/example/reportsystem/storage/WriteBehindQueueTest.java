@@ -0,0 +1,100 @@
+package com.example.reportsystem.storage;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindQueueTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WriteBehindQueueTest.class);
+
+    private record Flush(long id, boolean metadata, int chatFrom) {}
+
+    @Test
+    void mutationsOfOneReportCollapseIntoOneWrite() throws Exception {
+        List<Flush> flushes = new CopyOnWriteArrayList<>();
+        WriteBehindQueue q = new WriteBehindQueue((id, meta, from) -> flushes.add(new Flush(id, meta, from)),
+                LOG, 60_000, 60_000);
+        CompletableFuture<Void> a = q.append(1, 5);
+        CompletableFuture<Void> b = q.mark(1);
+        CompletableFuture<Void> c = q.append(1, 3);
+        q.append(2, 0);
+        assertEquals(2, q.pending());
+
+        q.close(); // drains synchronously
+        assertTrue(flushes.contains(new Flush(1, true, 3)));
+        assertTrue(flushes.contains(new Flush(2, false, 0)));
+        assertEquals(2, flushes.size());
+        assertSame(a, b);
+        assertSame(b, c);
+        assertTrue(a.isDone() && !a.isCompletedExceptionally());
+        assertEquals(0, q.pending());
+    }
+
+    @Test
+    void failedWriteIsRetriedBeforeItsFutureCompletes() throws Exception {
+        List<Flush> flushes = new CopyOnWriteArrayList<>();
+        AtomicInteger failures = new AtomicInteger(1);
+        WriteBehindQueue q = new WriteBehindQueue((id, meta, from) -> {
+            flushes.add(new Flush(id, meta, from));
+            if (failures.getAndDecrement() > 0) throw new IOException("disk full");
+        }, LOG, 10, 10);
+        try {
+            CompletableFuture<Void> first = q.append(7, 4);
+            // the failure is not reported: the future waits for the retry
+            first.get(5, TimeUnit.SECONDS);
+            assertFalse(first.isCompletedExceptionally());
+            assertEquals(List.of(new Flush(7, false, 4), new Flush(7, false, 4)), flushes);
+            assertEquals(0, q.pending());
+        } finally {
+            q.close();
+        }
+    }
+
+    @Test
+    void writeStillFailingAtShutdownFailsItsFuture() {
+        WriteBehindQueue q = new WriteBehindQueue((id, meta, from) -> {
+            throw new IOException("disk full");
+        }, LOG, 60_000, 60_000);
+        CompletableFuture<Void> f = q.mark(9);
+        q.close();
+        ExecutionException e = assertThrows(ExecutionException.class, () -> f.get(5, TimeUnit.SECONDS));
+        assertEquals("disk full", e.getCause().getMessage());
+        assertEquals(0, q.pending());
+    }
+
+    @Test
+    void backoffDoublesUpToTheCap() {
+        WriteBehindQueue q = new WriteBehindQueue((id, meta, from) -> {}, LOG, 100, 100);
+        try {
+            assertEquals(100, q.backoff(1));
+            assertEquals(200, q.backoff(2));
+            assertEquals(51_200, q.backoff(10));
+            assertEquals(WriteBehindQueue.MAX_BACKOFF_MS, q.backoff(11));
+            assertEquals(WriteBehindQueue.MAX_BACKOFF_MS, q.backoff(1_000));
+        } finally {
+            q.close();
+        }
+    }
+
+    @Test
+    void lateMutationAfterCloseIsWrittenThrough() throws Exception {
+        List<Flush> flushes = new CopyOnWriteArrayList<>();
+        WriteBehindQueue q = new WriteBehindQueue((id, meta, from) -> flushes.add(new Flush(id, meta, from)),
+                LOG, 60_000, 60_000);
+        q.close();
+        CompletableFuture<Void> late = q.mark(3);
+        assertTrue(late.isDone() && !late.isCompletedExceptionally());
+        assertEquals(List.of(new Flush(3, true, -1)), flushes);
+    }
+}